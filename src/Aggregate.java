@@ -0,0 +1,19 @@
+/*∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*
+  @file: Aggregate.java
+  @description: A monoid over tree items - what AvLTree keeps per subtree so that range
+                aggregates (count, sum, max ...) come out in O(log n).
+  @author: Calvin Malaney
+  @date: October 19, 2026
+∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*/
+
+// combine must be associative and identity() neutral for it. combine(a, b) is always called
+// with a's items before b's in tree order, so order-sensitive aggregates work too.
+// Values should be immutable - a node's value is shared with whoever reads it.
+public interface Aggregate<T, A> {
+    A identity();
+
+    // the value of a single item
+    A of(T x);
+
+    A combine(A left, A right);
+}
@@ -9,27 +9,118 @@
 //
 // ******************PUBLIC OPERATIONS*********************
 // void insert( x )       --> Insert x
-// void remove( x )       --> Remove x (unimplemented)
+// void remove( x )       --> Remove x (tombstones it in lazy-delete mode)
 // boolean contains( x )  --> Return true if x is present
-// boolean remove( x )    --> Return true if x was present
+// void forEachInRange( lo, hi, f ) --> Visit items in [lo, hi] in order
+// int size( )            --> Return number of (live) items
 // Comparable findMin( )  --> Return smallest item
 // Comparable findMax( )  --> Return largest item
 // boolean isEmpty( )     --> Return true if empty; else false
 // void makeEmpty( )      --> Remove all items
 // void printTree( )      --> Print tree in sorted order
+// ValidationReport validate( ) --> Check every invariant, report violating paths
+// void setLazyDelete( on, ratio, background ) --> Tombstone removes, compact past ratio
+// void compact( )        --> Physically drop tombstones, rebuild balanced
+// void awaitCompaction( ) --> Finish a background compaction now
+// void setMembershipFilter( on, rate ) --> Bloom filter in front of contains
+// void setAggregate( agg ) --> Keep a monoid aggregate per subtree
+// A aggregate( lo, hi )  --> Aggregate of the items in [lo, hi] in O(log n)
+// AvLTree join( l, x, r ) --> Concatenate l < x < r (consumes l and r)
+// Split split( x )       --> Split into items < x and > x (empties this tree)
+// void insertAll( c )    --> Insert a batch (parallel sort + build + union)
+// void union( t )        --> This becomes this ∪ t (empties t)
+// void intersection( t ) --> This becomes this ∩ t (empties t)
+// void difference( t )   --> This becomes this − t (empties t)
+// FrozenIndex freeze( )  --> Read-only Eytzinger snapshot for lookups
 // ******************ERRORS********************************
 // Throws UnderflowException as appropriate
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
 /**
  * Implements an AVL tree.
  * Note that all "matching" is based on the compareTo method.
  */
-public class AvLTree<AnyType extends Comparable<? super AnyType>> {
+public class AvLTree<AnyType extends Comparable<? super AnyType>> implements Iterable<AnyType> {
     /**
      * Construct the tree.
      */
     public AvLTree( ) {
+        this( false );
+    }
+
+    /**
+     * Construct the tree, optionally drawing nodes from a NodeArena so that
+     * removed nodes are reused by later inserts and makeEmpty is O(1).
+     * @param useArena true to pool nodes.
+     */
+    public AvLTree( boolean useArena ) {
         root = null;
+        arena = useArena ? new NodeArena<>( AVlNode::new, 1024 ) : null;
+    }
+
+    /**
+     * Internal method to get a fresh leaf for x, from the arena when pooling.
+     */
+    private AVlNode<AnyType> newNode( AnyType x ) {
+        AVlNode<AnyType> t;
+        if (arena == null) t = new AVlNode<>( x );
+        else {
+            t = arena.allocate( );
+            t.element = x;
+            t.left = t.right = null;
+            t.height = 0;
+            t.nodes = 1;
+            t.deleted = false;
+        }
+        if (aggregate != null) t.agg = aggregate.of( x );
+        return t;
+    }
+
+    /**
+     * Internal method to hand a node that left the tree back to the arena.
+     */
+    private void freeNode( AVlNode<AnyType> t ) {
+        if (arena != null) arena.release( t, t.slot );
+    }
+
+    /**
+     * Build a perfectly balanced tree from items already in ascending order
+     * (no duplicates) in linear time.
+     * @param sorted the items in sorted order.
+     * @return the new tree.
+     */
+    public static <T extends Comparable<? super T>> AvLTree<T> fromSorted( List<? extends T> sorted ) {
+        AvLTree<T> t = new AvLTree<>( );
+        t.root = buildBalanced( sorted, 0, sorted.size( ) - 1 );
+        t.size = sorted.size( );
+        return t;
+    }
+
+    /**
+     * Internal method to build a balanced subtree from sorted[lo..hi].
+     * @return the root of the subtree, or null if the range is empty.
+     */
+    private static <T> AVlNode<T> buildBalanced( List<? extends T> sorted, int lo, int hi ) {
+        if (lo > hi) return null;
+        int mid = (lo + hi) >>> 1;
+        AVlNode<T> t = new AVlNode<>( sorted.get( mid ) );
+        t.left = buildBalanced( sorted, lo, mid - 1 );
+        t.right = buildBalanced( sorted, mid + 1, hi );
+        t.height = (byte) (Math.max( t.left == null ? -1 : t.left.height, t.right == null ? -1 : t.right.height ) + 1);
+        t.nodes = hi - lo + 1;
+        return t;
     }
 
     /**
@@ -37,7 +128,180 @@ public class AvLTree<AnyType extends Comparable<? super AnyType>> {
      * @param x the item to insert.
      */
     public void insert( AnyType x ) {
-        root = insert( x, root );
+        TreeEvents.AvlOperation event = new TreeEvents.AvlOperation( );
+        event.begin( );
+        rotations = event.isEnabled( ) ? 0 : -1;
+        swapIfCompacted( );
+        int before = size;
+        if (root != null && x.compareTo( maxElement( ) ) > 0) {
+            append( x );
+        } else {
+            root = insert( x, root );
+            spineLen = 0;   // rotations may have reshaped the right spine
+        }
+        if (filter != null && size != before) filterAdd( x );
+        if (pendingCompaction != null) pendingOps.add( new PendingOp<>( true, x ) );
+        event.end( );
+        if (event.shouldCommit( )) commit( event, "insert", depthOf( x ), rotations );
+        rotations = -1;
+    }
+
+    /**
+     * Internal method to fill in and record an operation event.
+     */
+    private void commit( TreeEvents.AvlOperation event, String operation, int depth, int rotations ) {
+        event.operation = operation;
+        event.depth = depth;
+        event.rotations = rotations;
+        event.size = size;
+        event.commit( );
+    }
+
+    /**
+     * Internal method to count the edges from the root to x's node.
+     * @return the depth, or -1 if x is not in the tree.
+     */
+    private int depthOf( AnyType x ) {
+        int depth = 0;
+        for (AVlNode<AnyType> t = root; t != null; depth++) {
+            int compare = x.compareTo( t.element );
+            if (compare == 0) return depth;
+            t = compare < 0 ? t.left : t.right;
+        }
+        return -1;
+    }
+
+    /**
+     * Internal method to get the largest item in the tree (live or tombstone),
+     * cached between calls. The tree must not be empty.
+     */
+    private AnyType maxElement( ) {
+        if (maxElement == null) maxElement = findMax( root ).element;
+        return maxElement;
+    }
+
+    /**
+     * Internal method to add an item larger than everything in the tree.
+     * It goes at the end of the right spine, so no comparisons are needed,
+     * and only spine nodes can go out of balance. Growing the right side of
+     * a right child can only cause the RR case: one single rotation restores
+     * the old height, and so does the first spine node whose height doesn't
+     * change - either ends the walk, which makes sorted input amortized O(1)
+     * rotations. The spine nodes above still count one more node below them,
+     * which costs one fix per spine level but no comparisons.
+     */
+    private void append( AnyType x ) {
+        if (spineLen == 0)
+            for (AVlNode<AnyType> t = root; t != null; t = t.right) spine[spineLen++] = t;
+        AVlNode<AnyType> n = newNode( x );
+        spine[spineLen - 1].right = n;
+        spine[spineLen++] = n;
+        size++;
+        maxElement = x;
+
+        for (int i = spineLen - 2; i >= 0; i--) {
+            AVlNode<AnyType> t = spine[i];
+            if (height( t.right ) - height( t.left ) > ALLOWED_IMBALANCE) {
+                AVlNode<AnyType> r = rotateWithRightChild( t );   // RR
+                if (i == 0) root = r;
+                else spine[i - 1].right = r;
+                // t moved down to the left of r, off the spine
+                System.arraycopy( spine, i + 1, spine, i, spineLen - i - 1 );
+                spineLen--;
+                refreshSpine( i - 1 );
+                return;
+            }
+            int old = t.height;
+            fix( t );
+            if (t.height == old) {
+                refreshSpine( i - 1 );
+                return;
+            }
+        }
+    }
+
+    /**
+     * Internal method to recompute the subtree sizes (and aggregates) of
+     * spine[0..top] after an append stopped early: the heights above are
+     * right, the counts are not.
+     */
+    private void refreshSpine( int top ) {
+        for (int j = top; j >= 0; j--) fix( spine[j] );
+    }
+
+    /**
+     * Internal method to drop the cached max and right spine after the
+     * tree was changed by anything other than insert.
+     */
+    private void forgetSpine( ) {
+        spineLen = 0;
+        maxElement = null;
+    }
+
+    /**
+     * Insert a batch of items; duplicates (within the batch or already in
+     * the tree) are ignored. The batch is sorted in parallel, built into a
+     * balanced tree in parallel, and merged in with a join-based union,
+     * so large batches use every core instead of one rotation at a time.
+     * @param items the items to insert, in any order.
+     */
+    @SuppressWarnings("unchecked")
+    public void insertAll( Collection<? extends AnyType> items ) {
+        if (items.isEmpty( )) return;
+        Object[] sorted = items.toArray( );
+        for (Object o : sorted)
+            if (o == null) throw new IllegalArgumentException( "null value not allowed" );
+        Arrays.parallelSort( sorted, ( a, b ) -> ((AnyType) a).compareTo( (AnyType) b ) );
+
+        // drop adjacent duplicates in place
+        int n = 1;
+        for (int i = 1; i < sorted.length; i++)
+            if (((AnyType) sorted[i]).compareTo( (AnyType) sorted[n - 1] ) != 0)
+                sorted[n++] = sorted[i];
+
+        AvLTree<AnyType> batch = new AvLTree<>( );
+        List<AnyType> run = (List<AnyType>) (List<?>) Arrays.asList( sorted );
+        batch.root = invoke( new BuildTask<>( run, 0, n - 1 ) );
+        batch.size = n;
+        if (isEmpty( ) && tombstones == 0 && pendingCompaction == null) {
+            root = batch.root;
+            size = n;
+            forgetSpine( );
+            refreshAll( root );
+            if (filter != null) filter.rebuild( this, n );
+        } else {
+            union( batch );
+        }
+    }
+
+    /** Ranges at least this long are built as two parallel halves. */
+    private static final int PARALLEL_BUILD = 1 << 13;
+
+    // buildBalanced, forking the two halves of large ranges
+    @SuppressWarnings("serial")   // never serialized - RecursiveTask is Serializable only by inheritance
+    private static final class BuildTask<T> extends RecursiveTask<AVlNode<T>> {
+        private final List<T> sorted;
+        private final int lo, hi;
+
+        BuildTask( List<T> sorted, int lo, int hi ) {
+            this.sorted = sorted;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected AVlNode<T> compute( ) {
+            if (hi - lo < PARALLEL_BUILD) return buildBalanced( sorted, lo, hi );
+            int mid = (lo + hi) >>> 1;
+            BuildTask<T> leftTask = new BuildTask<>( sorted, lo, mid - 1 );
+            leftTask.fork( );
+            AVlNode<T> t = new AVlNode<>( sorted.get( mid ) );
+            t.right = new BuildTask<>( sorted, mid + 1, hi ).compute( );
+            t.left = leftTask.join( );
+            t.height = (byte) (Math.max( t.left == null ? -1 : t.left.height, t.right == null ? -1 : t.right.height ) + 1);
+            t.nodes = hi - lo + 1;
+            return t;
+        }
     }
 
     /**
@@ -45,7 +309,25 @@ public class AvLTree<AnyType extends Comparable<? super AnyType>> {
      * @param x the item to remove.
      */
     public void remove( AnyType x ) {
-        root = remove( x, root );
+        TreeEvents.AvlOperation event = new TreeEvents.AvlOperation( );
+        event.begin( );
+        rotations = event.isEnabled( ) ? 0 : -1;
+        // measured before the node goes: one more descent per remove while the event is
+        // enabled, even for removes that end up under the threshold
+        int depth = event.isEnabled( ) ? depthOf( x ) : -1;
+        swapIfCompacted( );
+        int before = size;
+        if (lazyDelete) markDeleted( x );
+        else {
+            root = remove( x, root );
+            forgetSpine( );
+        }
+        if (filter != null && size != before) filterRemoved( 1 );
+        if (pendingCompaction != null) pendingOps.add( new PendingOp<>( false, x ) );
+        if (lazyDelete) maybeCompact( );
+        event.end( );
+        if (event.shouldCommit( )) commit( event, "remove", depth, rotations );
+        rotations = -1;
     }
 
     /**
@@ -64,20 +346,51 @@ public class AvLTree<AnyType extends Comparable<? super AnyType>> {
             t.right = remove( x, t.right );
         } else {
             // found node to remove
+            if (t.deleted) tombstones--;
+            else size--;
             if (t.left != null && t.right != null) {
-                // replace with smallest in right subtree
+                // replace with smallest in right subtree (tombstone flag travels with it)
                 AVlNode<AnyType> min = findMin( t.right );
                 t.element = min.element;
-                t.right = remove(t.element, t.right);
+                t.deleted = min.deleted;
+                t.right = removeMin( t.right );
+                freeNode( min );
             } else {
                 // one child or none
+                AVlNode<AnyType> gone = t;
                 t = (t.left != null) ? t.left : t.right;
+                freeNode( gone );
             }
         }
         // rebalance the tree on the way up
         return balance( t );
     }
 
+    /**
+     * Internal method to unlink the smallest node of a subtree.
+     * @param t the node that roots the subtree.
+     * @return the new root of the subtree.
+     */
+    private AVlNode<AnyType> removeMin( AVlNode<AnyType> t ) {
+        if (t.left == null) return t.right;
+        t.left = removeMin( t.left );
+        return balance( t );
+    }
+
+    /**
+     * Internal method to tombstone x without restructuring the tree.
+     * @param x the item to remove.
+     */
+    private void markDeleted( AnyType x ) {
+        AVlNode<AnyType> t = findNode( x, root );
+        if (t != null && !t.deleted) {
+            t.deleted = true;
+            size--;
+            tombstones++;
+            refreshPath( x );
+        }
+    }
+
     /**
      * Find the smallest item in the tree.
      * @return smallest item or null if empty.
@@ -85,7 +398,8 @@ public class AvLTree<AnyType extends Comparable<? super AnyType>> {
     public AnyType findMin( ) {
         if( isEmpty( ) )
             throw new UnderflowException( );
-        return findMin( root ).element;
+        AVlNode<AnyType> min = findMin( root );
+        return min.deleted ? firstLive( root, true ).element : min.element;
     }
 
     /**
@@ -95,7 +409,29 @@ public class AvLTree<AnyType extends Comparable<? super AnyType>> {
     public AnyType findMax( ) {
         if( isEmpty( ) )
             throw new UnderflowException( );
-        return findMax( root ).element;
+        AVlNode<AnyType> max = findMax( root );
+        return max.deleted ? firstLive( root, false ).element : max.element;
+    }
+
+    /**
+     * Internal method to find the first non-tombstoned node in order
+     * (or in reverse order), skipping over tombstones.
+     * @param t the node that roots the tree.
+     * @param ascending true to scan from the smallest item, false from the largest.
+     * @return the first live node, or null if there is none.
+     */
+    private AVlNode<AnyType> firstLive( AVlNode<AnyType> t, boolean ascending ) {
+        Deque<AVlNode<AnyType>> stack = new ArrayDeque<>( );
+        while (t != null || !stack.isEmpty( )) {
+            while (t != null) {
+                stack.push( t );
+                t = ascending ? t.left : t.right;
+            }
+            t = stack.pop( );
+            if (!t.deleted) return t;
+            t = ascending ? t.right : t.left;
+        }
+        return null;
     }
 
     /**
@@ -104,14 +440,49 @@ public class AvLTree<AnyType extends Comparable<? super AnyType>> {
      * @return true if x is found.
      */
     public boolean contains( AnyType x ) {
+        if (filter != null && !filter.mightContain( x )) return false;
         return contains( x, root );
     }
 
+    /**
+     * Visit every item between lo and hi (inclusive) in sorted order,
+     * in O(log n + k) for k items visited.
+     * @param lo the lower bound.
+     * @param hi the upper bound.
+     * @param action called with each item.
+     */
+    public void forEachInRange( AnyType lo, AnyType hi, Consumer<? super AnyType> action ) {
+        Deque<AVlNode<AnyType>> stack = new ArrayDeque<>( );
+        AVlNode<AnyType> t = root;
+        while (t != null || !stack.isEmpty( )) {
+            while (t != null) {
+                if (lo.compareTo( t.element ) <= 0) {
+                    stack.push( t );
+                    t = t.left;
+                } else {
+                    t = t.right;   // everything on the left is below lo
+                }
+            }
+            if (stack.isEmpty( )) break;
+            t = stack.pop( );
+            if (hi.compareTo( t.element ) < 0) return;   // past hi - done
+            if (!t.deleted) action.accept( t.element );
+            t = t.right;
+        }
+    }
+
     /**
      * Make the tree logically empty.
      */
     public void makeEmpty( ) {
         root = null;
+        if (arena != null) arena.reset( );
+        size = 0;
+        tombstones = 0;
+        pendingCompaction = null;
+        pendingOps.clear( );
+        forgetSpine( );
+        if (filter != null) filter.clear( );
     }
 
     /**
@@ -119,7 +490,235 @@ public class AvLTree<AnyType extends Comparable<? super AnyType>> {
      * @return true if empty, false otherwise.
      */
     public boolean isEmpty( ) {
-        return root == null;
+        return size == 0;
+    }
+
+    /**
+     * Return the number of items in the tree (tombstones not counted).
+     */
+    public int size( ) {
+        return size;
+    }
+
+    /**
+     * Turn lazy deletion on or off. While on, remove only marks the node as a
+     * tombstone; once tombstones make up more than maxTombstoneRatio of the
+     * nodes the tree rebuilds itself without them.
+     * @param on true to tombstone on remove.
+     * @param maxTombstoneRatio fraction of dead nodes (0..1) that triggers compaction.
+     * @param background true to build the compacted tree on another thread.
+     */
+    public void setLazyDelete( boolean on, double maxTombstoneRatio, boolean background ) {
+        if (maxTombstoneRatio <= 0 || maxTombstoneRatio >= 1)
+            throw new IllegalArgumentException( "tombstone ratio must be in (0, 1): " + maxTombstoneRatio );
+        lazyDelete = on;
+        compactRatio = maxTombstoneRatio;
+        compactInBackground = background;
+        if (!on && tombstones > 0) compact( );
+    }
+
+    /**
+     * Keep a monoid aggregate (count, sum, max ...) in every node, so that
+     * aggregate( lo, hi ) answers in O(log n) instead of visiting every item
+     * in the range. Inserts, removes, rotations, set operations and rebuilds
+     * all keep it up to date; computing it for the items already in the tree
+     * takes one O(n) pass.
+     * @param agg the monoid, or null to stop keeping one.
+     */
+    @SuppressWarnings("unchecked")
+    public <A> void setAggregate( Aggregate<? super AnyType, A> agg ) {
+        // the tree being built in the background would come back without aggregates
+        awaitCompaction( );
+        aggregate = (Aggregate<? super AnyType, Object>) agg;
+        refreshAll( root );
+    }
+
+    /**
+     * Return the aggregate of every live item.
+     * @throws IllegalStateException if no aggregate is kept.
+     */
+    @SuppressWarnings("unchecked")
+    public <A> A aggregate( ) {
+        if (aggregate == null) throw new IllegalStateException( "no aggregate set" );
+        return (A) agg( root );
+    }
+
+    /**
+     * Return the aggregate of the live items between lo and hi (inclusive),
+     * combined in sorted order, in O(log n): the two search paths for lo and
+     * hi pick up whole subtrees on their inner sides.
+     * @param lo the lower bound.
+     * @param hi the upper bound.
+     * @throws IllegalStateException if no aggregate is kept.
+     */
+    @SuppressWarnings("unchecked")
+    public <A> A aggregate( AnyType lo, AnyType hi ) {
+        if (aggregate == null) throw new IllegalStateException( "no aggregate set" );
+        // first node inside the range from the top - both paths go through it
+        AVlNode<AnyType> s = root;
+        while (s != null) {
+            if (hi.compareTo( s.element ) < 0) s = s.left;
+            else if (lo.compareTo( s.element ) > 0) s = s.right;
+            else break;
+        }
+        if (s == null) return (A) aggregate.identity( );
+
+        // items >= lo in the left subtree, collected right to left
+        Object left = aggregate.identity( );
+        for (AVlNode<AnyType> t = s.left; t != null; ) {
+            if (lo.compareTo( t.element ) <= 0) {
+                left = aggregate.combine( aggregate.combine( self( t ), agg( t.right ) ), left );
+                t = t.left;
+            } else {
+                t = t.right;
+            }
+        }
+        // items <= hi in the right subtree, collected left to right
+        Object right = aggregate.identity( );
+        for (AVlNode<AnyType> t = s.right; t != null; ) {
+            if (hi.compareTo( t.element ) >= 0) {
+                right = aggregate.combine( right, aggregate.combine( agg( t.left ), self( t ) ) );
+                t = t.right;
+            } else {
+                t = t.left;
+            }
+        }
+        return (A) aggregate.combine( aggregate.combine( left, self( s ) ), right );
+    }
+
+    // the node's own item as an aggregate (nothing for a tombstone)
+    private Object self( AVlNode<AnyType> t ) {
+        return t.deleted ? aggregate.identity( ) : aggregate.of( t.element );
+    }
+
+    /**
+     * Put a Bloom filter in front of contains, so that most lookups of absent
+     * items return without walking the tree. The filter follows every insert,
+     * remove and set operation, and rebuilds itself from the live items when
+     * it fills up or removes pile up. Items that compare equal must have equal
+     * hash codes.
+     * @param on true to keep a filter, false to drop it.
+     * @param falsePositiveRate fraction (0..1) of misses that still walk the tree;
+     *        the filter takes about 1.44 * log2(1 / rate) bits per item.
+     */
+    public void setMembershipFilter( boolean on, double falsePositiveRate ) {
+        if (!on) {
+            filter = null;
+            return;
+        }
+        filter = new BloomFilter<>( 0, falsePositiveRate );
+        filter.rebuild( this, size( ) );
+    }
+
+    // records an insert in the filter, growing it when it gets too full
+    private void filterAdd( AnyType x ) {
+        filter.add( x );
+        if (filter.needsRebuild( )) filter.rebuild( this, size( ) );
+    }
+
+    // records removes (or an upper bound on them) and rebuilds once enough bits are stale
+    private void filterRemoved( int count ) {
+        filter.noteRemoved( count );
+        if (filter.needsRebuild( )) filter.rebuild( this, size( ) );
+    }
+
+    /**
+     * Return the fraction of nodes that are tombstones.
+     */
+    public double tombstoneRatio( ) {
+        int nodes = size( ) + tombstones;
+        return nodes == 0 ? 0.0 : (double) tombstones / nodes;
+    }
+
+    /**
+     * Physically remove all tombstones by rebuilding a balanced tree
+     * from the live items in linear time.
+     */
+    public void compact( ) {
+        TreeEvents.AvlOperation event = new TreeEvents.AvlOperation( );
+        event.begin( );
+        pendingCompaction = null;
+        pendingOps.clear( );
+        List<AnyType> live = liveItems( );
+        if (arena != null) arena.reset( );   // every old node is dropped
+        root = buildBalanced( live, 0, live.size( ) - 1 );
+        refreshAll( root );
+        size = live.size( );
+        tombstones = 0;
+        forgetSpine( );
+        event.end( );
+        if (event.shouldCommit( )) commit( event, "rebalance", height( root ), 0 );
+    }
+
+    private static final int MIN_COMPACT_NODES = 64;
+
+    // starts a compaction once the tombstone ratio passes the threshold
+    private void maybeCompact( ) {
+        if (pendingCompaction != null || tombstones < MIN_COMPACT_NODES || tombstoneRatio( ) <= compactRatio)
+            return;
+        if (!compactInBackground) {
+            compact( );
+            return;
+        }
+        // snapshot the live items here; the node allocation and linking run on the pool.
+        // Mutations made meanwhile go to the live tree as usual and are also logged,
+        // so they can be replayed onto the new tree when it is swapped in.
+        List<AnyType> live = liveItems( );
+        pendingSnapshotSize = live.size( );
+        pendingCompaction = CompletableFuture.supplyAsync( ( ) -> {
+            AVlNode<AnyType> fresh = buildBalanced( live, 0, live.size( ) - 1 );
+            refreshAll( fresh );
+            return fresh;
+        } );
+    }
+
+    /**
+     * Wait for a background compaction under way (if any) and swap it in now,
+     * instead of on the next insert or remove.
+     */
+    public void awaitCompaction( ) {
+        if (pendingCompaction != null) {
+            pendingCompaction.join( );
+            swapIfCompacted( );
+        }
+    }
+
+    // swaps in a finished background compaction and replays what happened since the snapshot
+    private void swapIfCompacted( ) {
+        if (pendingCompaction == null || !pendingCompaction.isDone( ))
+            return;
+        AVlNode<AnyType> fresh = pendingCompaction.join( );
+        List<PendingOp<AnyType>> ops = new ArrayList<>( pendingOps );
+        pendingCompaction = null;
+        pendingOps.clear( );
+
+        if (arena != null) arena.reset( );   // the old nodes are dropped
+        root = fresh;
+        size = pendingSnapshotSize;
+        tombstones = 0;
+        for (PendingOp<AnyType> op : ops) {
+            if (op.insert) root = insert( op.item, root );
+            else if (lazyDelete) markDeleted( op.item );
+            else root = remove( op.item, root );
+        }
+        forgetSpine( );
+    }
+
+    private List<AnyType> liveItems( ) {
+        List<AnyType> live = new ArrayList<>( size( ) );
+        for (AnyType x : this) live.add( x );
+        return live;
+    }
+
+    // a mutation logged while a background compaction is running
+    private static final class PendingOp<AnyType> {
+        final boolean insert;
+        final AnyType item;
+
+        PendingOp( boolean insert, AnyType item ) {
+            this.insert = insert;
+            this.item = item;
+        }
     }
 
     /**
@@ -132,6 +731,326 @@ public class AvLTree<AnyType extends Comparable<? super AnyType>> {
             printTree( root );
     }
 
+    /**
+     * Snapshot the tree into an immutable, search-only index.
+     * The tree itself is left unchanged.
+     * @return a FrozenIndex holding the current items.
+     */
+    public FrozenIndex<AnyType> freeze( ) {
+        List<AnyType> sorted = new ArrayList<>( );
+        for (AnyType x : this) sorted.add( x );
+        return new FrozenIndex<>( sorted );
+    }
+
+    /**
+     * Iterate over the items in sorted order.
+     */
+    public Iterator<AnyType> iterator( ) {
+        return new InOrderIterator( root );
+    }
+
+    // in-order iterator - same explicit stack approach as BST
+    private final class InOrderIterator implements Iterator<AnyType> {
+        private final Deque<AVlNode<AnyType>> stack = new ArrayDeque<>( );
+
+        InOrderIterator( AVlNode<AnyType> start ) {
+            pushLeft( start );
+            skipTombstones( );
+        }
+
+        private void pushLeft( AVlNode<AnyType> n ) {
+            while (n != null) {
+                stack.push( n );
+                n = n.left;
+            }
+        }
+
+        // leaves a live node (or nothing) on top of the stack
+        private void skipTombstones( ) {
+            while (!stack.isEmpty( ) && stack.peek( ).deleted) {
+                pushLeft( stack.pop( ).right );
+            }
+        }
+
+        @Override
+        public boolean hasNext( ) {
+            return !stack.isEmpty( );
+        }
+
+        @Override
+        public AnyType next( ) {
+            AVlNode<AnyType> n = stack.pop( );
+            pushLeft( n.right );
+            skipTombstones( );
+            return n.element;
+        }
+    }
+
+    /**
+     * Join two trees around a middle key in O(|height(l) - height(r)| + 1).
+     * Every item of left must be smaller than key and every item of right larger.
+     * Both input trees are emptied.
+     * @return a new tree holding left, key and right.
+     */
+    public static <T extends Comparable<? super T>> AvLTree<T> join( AvLTree<T> left, T key, AvLTree<T> right ) {
+        left.settle( );
+        right.settle( );
+        if (!left.isEmpty( ) && left.findMax( ).compareTo( key ) >= 0
+                || !right.isEmpty( ) && right.findMin( ).compareTo( key ) <= 0)
+            throw new IllegalArgumentException( "join requires left < key < right" );
+        AvLTree<T> t = new AvLTree<>( );
+        // both sides' subtree aggregates stay valid only if they were kept with the same monoid
+        if (left.aggregate == right.aggregate) t.aggregate = left.aggregate;
+        t.root = t.joinNodes( left.root, new AVlNode<>( key ), right.root );
+        t.size = left.size( ) + 1 + right.size( );
+        left.abandonNodes( );
+        right.abandonNodes( );
+        return t;
+    }
+
+    /**
+     * Result of split: the items smaller than the key, whether the key itself
+     * was present, and the items larger than the key.
+     */
+    public static final class Split<T extends Comparable<? super T>> {
+        public final AvLTree<T> less;
+        public final boolean found;
+        public final AvLTree<T> greater;
+
+        Split( AvLTree<T> less, boolean found, AvLTree<T> greater ) {
+            this.less = less;
+            this.found = found;
+            this.greater = greater;
+        }
+    }
+
+    /**
+     * Split the tree around x in O(log n). This tree is emptied.
+     * @param x the key to split at.
+     * @return the two halves and whether x was present.
+     */
+    public Split<AnyType> split( AnyType x ) {
+        settle( );
+        SplitNodes<AnyType> parts = split( root, x );
+        AvLTree<AnyType> less = new AvLTree<>( );
+        AvLTree<AnyType> greater = new AvLTree<>( );
+        less.aggregate = greater.aggregate = aggregate;   // the halves' subtree values are still right
+        less.root = parts.left;
+        less.size = nodes( parts.left );
+        greater.root = parts.right;
+        greater.size = nodes( parts.right );
+        abandonNodes( );
+        return new Split<>( less, parts.mid != null, greater );
+    }
+
+    /**
+     * Replace this tree with the union of this tree and other,
+     * in O(m log(n/m + 1)) work for sizes m <= n. Other is emptied.
+     * Where both trees hold an equal item, this tree's copy is kept.
+     */
+    public void union( AvLTree<AnyType> other ) {
+        beginSetOp( other );
+        if (filter != null) for (AnyType x : other) filter.add( x );
+        // whole subtrees of other can end up in this tree unchanged
+        if (aggregate != null && other.aggregate != aggregate) refreshAll( other.root );
+        root = invoke( new SetOpTask( SetOp.UNION, root, other.root ) );
+        endSetOp( other );
+        if (filter != null && filter.needsRebuild( )) filter.rebuild( this, size( ) );
+    }
+
+    /**
+     * Replace this tree with the items present in both this tree and other.
+     * Other is emptied.
+     */
+    public void intersection( AvLTree<AnyType> other ) {
+        beginSetOp( other );
+        root = invoke( new SetOpTask( SetOp.INTERSECTION, root, other.root ) );
+        endSetOp( other );
+        // the result is no bigger than other, so a fresh filter costs no more than the operation
+        if (filter != null) filter.rebuild( this, size( ) );
+    }
+
+    /**
+     * Remove from this tree every item present in other. Other is emptied.
+     */
+    public void difference( AvLTree<AnyType> other ) {
+        beginSetOp( other );
+        int removable = other.size;   // at most this many items go
+        root = invoke( new SetOpTask( SetOp.DIFFERENCE, root, other.root ) );
+        endSetOp( other );
+        if (filter != null) filterRemoved( removable );
+    }
+
+    private void beginSetOp( AvLTree<AnyType> other ) {
+        if (other == this)
+            throw new IllegalArgumentException( "set operation on a tree with itself" );
+        settle( );
+        other.settle( );
+    }
+
+    private void endSetOp( AvLTree<AnyType> other ) {
+        size = nodes( root );   // both trees were settled, so every node is live
+        forgetSpine( );
+        other.abandonNodes( );
+    }
+
+    // empties a tree whose nodes now belong to another tree. A pooled tree
+    // starts a new arena, since the old slab still holds those live nodes.
+    // (Nodes a set operation drops are not recycled; they are reclaimed with
+    // the arena on the next makeEmpty or compact.)
+    private void abandonNodes( ) {
+        if (arena != null) arena = new NodeArena<>( AVlNode::new, 1024 );
+        makeEmpty( );
+    }
+
+    // the set operations work on physical nodes, so finish any background
+    // compaction and drop tombstones first
+    private void settle( ) {
+        awaitCompaction( );
+        if (tombstones > 0) compact( );
+    }
+
+    // run on the common pool unless we are already inside it
+    private static <T> T invoke( RecursiveTask<T> task ) {
+        return ForkJoinTask.inForkJoinPool( ) ? task.invoke( ) : ForkJoinPool.commonPool( ).invoke( task );
+    }
+
+    /** Subtrees at least this tall (roughly 2^height nodes) fork their two halves. */
+    private static final int PARALLEL_HEIGHT = 12;
+
+    private enum SetOp { UNION, INTERSECTION, DIFFERENCE }
+
+    // one level of a join-based set operation; recurses on both halves, in parallel if large
+    @SuppressWarnings("serial")   // never serialized - RecursiveTask is Serializable only by inheritance
+    private final class SetOpTask extends RecursiveTask<AVlNode<AnyType>> {
+        private final SetOp op;
+        private final AVlNode<AnyType> t1;
+        private final AVlNode<AnyType> t2;
+
+        SetOpTask( SetOp op, AVlNode<AnyType> t1, AVlNode<AnyType> t2 ) {
+            this.op = op;
+            this.t1 = t1;
+            this.t2 = t2;
+        }
+
+        @Override
+        protected AVlNode<AnyType> compute( ) {
+            if (t1 == null) return op == SetOp.UNION ? t2 : null;
+            if (t2 == null) return op == SetOp.INTERSECTION ? null : t1;
+
+            // union/intersection split t2 by t1's root; difference splits t1 by t2's root
+            AVlNode<AnyType> pivot = op == SetOp.DIFFERENCE ? t2 : t1;
+            SplitNodes<AnyType> parts = split( op == SetOp.DIFFERENCE ? t1 : t2, pivot.element );
+            AVlNode<AnyType> pl = pivot.left, pr = pivot.right;
+
+            SetOpTask leftTask, rightTask;
+            if (op == SetOp.DIFFERENCE) {
+                leftTask = new SetOpTask( op, parts.left, pl );
+                rightTask = new SetOpTask( op, parts.right, pr );
+            } else {
+                leftTask = new SetOpTask( op, pl, parts.left );
+                rightTask = new SetOpTask( op, pr, parts.right );
+            }
+
+            AVlNode<AnyType> l, r;
+            if (Math.max( height( t1 ), height( t2 ) ) >= PARALLEL_HEIGHT) {
+                leftTask.fork( );
+                r = rightTask.compute( );
+                l = leftTask.join( );
+            } else {
+                l = leftTask.compute( );
+                r = rightTask.compute( );
+            }
+
+            switch (op) {
+                case UNION:
+                    return joinNodes( l, pivot, r );
+                case INTERSECTION:
+                    return parts.mid != null ? joinNodes( l, pivot, r ) : join2( l, r );
+                default:
+                    return join2( l, r );
+            }
+        }
+    }
+
+    // holder for the three parts of a split (or two, for splitLast)
+    private static final class SplitNodes<AnyType> {
+        AVlNode<AnyType> left;
+        AVlNode<AnyType> mid;
+        AVlNode<AnyType> right;
+
+        SplitNodes( AVlNode<AnyType> left, AVlNode<AnyType> mid, AVlNode<AnyType> right ) {
+            this.left = left;
+            this.mid = mid;
+            this.right = right;
+        }
+    }
+
+    /**
+     * Internal method to split a subtree around x. The subtree's nodes are
+     * reused; mid is the node equal to x, or null.
+     */
+    private SplitNodes<AnyType> split( AVlNode<AnyType> t, AnyType x ) {
+        if (t == null) return new SplitNodes<>( null, null, null );
+        int compare = x.compareTo( t.element );
+        if (compare == 0) return new SplitNodes<>( t.left, t, t.right );
+        AVlNode<AnyType> tl = t.left, tr = t.right;
+        if (compare < 0) {
+            SplitNodes<AnyType> parts = split( tl, x );
+            parts.right = joinNodes( parts.right, t, tr );
+            return parts;
+        }
+        SplitNodes<AnyType> parts = split( tr, x );
+        parts.left = joinNodes( tl, t, parts.left );
+        return parts;
+    }
+
+    /**
+     * Internal method to join l < k < r, using node k as the middle.
+     * @return the root of the joined subtree.
+     */
+    private AVlNode<AnyType> joinNodes( AVlNode<AnyType> l, AVlNode<AnyType> k, AVlNode<AnyType> r ) {
+        if (height( l ) > height( r ) + ALLOWED_IMBALANCE) return joinRight( l, k, r );
+        if (height( r ) > height( l ) + ALLOWED_IMBALANCE) return joinLeft( l, k, r );
+        k.left = l;
+        k.right = r;
+        fix( k );
+        return k;
+    }
+
+    // l is taller: walk down l's right spine until r fits, then rebalance on the way up
+    private AVlNode<AnyType> joinRight( AVlNode<AnyType> l, AVlNode<AnyType> k, AVlNode<AnyType> r ) {
+        if (height( l ) <= height( r ) + ALLOWED_IMBALANCE) return joinNodes( l, k, r );
+        l.right = joinRight( l.right, k, r );
+        return balance( l );
+    }
+
+    // mirror image of joinRight
+    private AVlNode<AnyType> joinLeft( AVlNode<AnyType> l, AVlNode<AnyType> k, AVlNode<AnyType> r ) {
+        if (height( r ) <= height( l ) + ALLOWED_IMBALANCE) return joinNodes( l, k, r );
+        r.left = joinLeft( l, k, r.left );
+        return balance( r );
+    }
+
+    /**
+     * Internal method to join l < r with no middle key: the largest node of l
+     * is taken out and used as the middle.
+     */
+    private AVlNode<AnyType> join2( AVlNode<AnyType> l, AVlNode<AnyType> r ) {
+        if (l == null) return r;
+        if (r == null) return l;
+        SplitNodes<AnyType> last = splitLast( l );
+        return joinNodes( last.left, last.mid, r );
+    }
+
+    // detaches the largest node of t: returns (t without it, that node)
+    private SplitNodes<AnyType> splitLast( AVlNode<AnyType> t ) {
+        if (t.right == null) return new SplitNodes<>( t.left, t, null );
+        SplitNodes<AnyType> parts = splitLast( t.right );
+        parts.left = joinNodes( t.left, t, parts.left );
+        return parts;
+    }
+
     private static final int ALLOWED_IMBALANCE = 1;
 
     // Assume t is either balanced or within one of being balanced
@@ -153,12 +1072,27 @@ public class AvLTree<AnyType extends Comparable<? super AnyType>> {
                 t = doubleWithRightChild(t); // RL - db. right-left rotation
             }
         } else {
-            // already balanced - update height
-            t.height = Math.max(height(t.left), height(t.right)) + 1;
+            // already balanced - update height (and aggregate)
+            fix(t);
         }
         return t;
     }
 
+    /**
+     * Verify every invariant of the tree in parallel: search order against
+     * all ancestors, stored heights, balance factors, the size and tombstone
+     * counters and the cached max. Deep trees are walked without recursion.
+     * @return the report, listing the paths of the first violations.
+     */
+    public ValidationReport validate( ) {
+        TreeValidator<AVlNode<AnyType>, AnyType> v = new TreeValidator<>(
+                t -> t.left, t -> t.right, t -> t.element, t -> t.height, t -> t.nodes, t -> !t.deleted, 10 );
+        ValidationReport report = v.validate( root, size, tombstones );
+        if (maxElement != null && root != null && maxElement.compareTo( findMax( root ).element ) != 0)
+            report.add( "", "cached max " + maxElement + " is not the largest item " + findMax( root ).element );
+        return report;
+    }
+
     /**
      * Public test hook: walks the tree and verifies AVL invariants.
      * Side effect: prints a message if a violation is detected.
@@ -198,7 +1132,8 @@ public class AvLTree<AnyType extends Comparable<? super AnyType>> {
      */
     private AVlNode<AnyType> insert(AnyType x, AVlNode<AnyType> t ) {
         if (t == null) {
-            return new AVlNode<>( x );
+            size++;
+            return newNode( x );
         }
 
         int compare = x.compareTo( t.element );
@@ -207,7 +1142,14 @@ public class AvLTree<AnyType extends Comparable<? super AnyType>> {
         } else if ( compare > 0 ) {
             t.right = insert( x, t.right );
         } else {
-            // duplicate - ignore it
+            // duplicate - ignore it, unless it is a tombstone to bring back
+            if (t.deleted) {
+                t.deleted = false;
+                t.element = x;
+                tombstones--;
+                size++;
+                fix( t );
+            }
             return t;
         }
 
@@ -243,13 +1185,24 @@ public class AvLTree<AnyType extends Comparable<? super AnyType>> {
      * @return true if x is found in subtree.
      */
     private boolean contains( AnyType x, AVlNode<AnyType> t ) {
+        t = findNode( x, t );
+        return t != null && !t.deleted;
+    }
+
+    /**
+     * Internal method to find the node holding x (live or tombstone).
+     * @param x is item to search for.
+     * @param t the node that roots the tree.
+     * @return the node, or null if x is not in the subtree.
+     */
+    private AVlNode<AnyType> findNode( AnyType x, AVlNode<AnyType> t ) {
         while (t != null) {
             int compare = x.compareTo(t.element);
             if (compare < 0) t = t.left;
             else if (compare > 0) t = t.right;
-            else return true;
+            else return t;
         }
-        return false;
+        return null;
     }
 
     /**
@@ -259,7 +1212,7 @@ public class AvLTree<AnyType extends Comparable<? super AnyType>> {
     private void printTree( AVlNode<AnyType> t ) {
         if (t == null) return;
         printTree(t.left);
-        System.out.println(t.element);
+        if (!t.deleted) System.out.println(t.element);
         printTree(t.right);
     }
 
@@ -270,6 +1223,66 @@ public class AvLTree<AnyType extends Comparable<? super AnyType>> {
         return t == null ? -1 : t.height;
     }
 
+    /**
+     * Return the number of nodes (tombstones included) under t, or 0, if null.
+     */
+    private static int nodes( AVlNode<?> t ) {
+        return t == null ? 0 : t.nodes;
+    }
+
+    /**
+     * Internal method to recompute a node's height and subtree size, and its
+     * aggregate when one is kept, from its children.
+     */
+    private void fix( AVlNode<AnyType> t ) {
+        t.height = (byte) (Math.max( height( t.left ), height( t.right ) ) + 1);
+        t.nodes = nodes( t.left ) + nodes( t.right ) + 1;
+        if (aggregate != null) t.agg = combined( t );
+    }
+
+    /**
+     * Internal method to compute a node's aggregate from its children's
+     * (a tombstone counts as nothing).
+     */
+    private Object combined( AVlNode<AnyType> t ) {
+        Object mid = t.deleted ? aggregate.identity( ) : aggregate.of( t.element );
+        return aggregate.combine( aggregate.combine( agg( t.left ), mid ), agg( t.right ) );
+    }
+
+    private Object agg( AVlNode<AnyType> t ) {
+        return t == null ? aggregate.identity( ) : t.agg;
+    }
+
+    /**
+     * Internal method to compute every aggregate of a subtree bottom-up,
+     * after it was built without them. Does nothing when none is kept.
+     */
+    private void refreshAll( AVlNode<AnyType> t ) {
+        if (aggregate == null || t == null) return;
+        refreshAll( t.left );
+        refreshAll( t.right );
+        t.agg = combined( t );
+    }
+
+    /**
+     * Internal method to recompute the aggregates on the path from the root
+     * to x, after x's node changed in place.
+     */
+    private void refreshPath( AnyType x ) {
+        if (aggregate == null) return;
+        Deque<AVlNode<AnyType>> path = new ArrayDeque<>( );
+        for (AVlNode<AnyType> t = root; t != null; ) {
+            path.push( t );
+            int compare = x.compareTo( t.element );
+            if (compare == 0) break;
+            t = compare < 0 ? t.left : t.right;
+        }
+        while (!path.isEmpty( )) {
+            AVlNode<AnyType> t = path.pop( );
+            t.agg = combined( t );
+        }
+    }
+
     /**
      * Rotate binary tree node with left child.
      * For AVL trees, this is a single rotation for case 1. (LL)
@@ -279,10 +1292,11 @@ public class AvLTree<AnyType extends Comparable<? super AnyType>> {
         AVlNode<AnyType> k1 = k2.left;
         k2.left = k1.right;
         k1.right = k2;
+        if (rotations >= 0) rotations++;
 
         // update heights - child first, then parent
-        k2.height = Math.max(height(k2.left), height(k2.right)) + 1;
-        k1.height = Math.max(height(k1.left), height(k1.right)) + 1;
+        fix(k2);
+        fix(k1);
 
         return k1;
     }
@@ -296,10 +1310,11 @@ public class AvLTree<AnyType extends Comparable<? super AnyType>> {
         AVlNode<AnyType> k2 = k1.right;
         k1.right = k2.left;
         k2.left = k1;
+        if (rotations >= 0) rotations++;
 
         // update heights
-        k1.height = Math.max(height(k1.left), height(k1.right)) + 1;
-        k2.height = Math.max(height(k2.left), height(k2.right)) + 1;
+        fix(k1);
+        fix(k2);
 
         return k2;
     }
@@ -332,19 +1347,65 @@ public class AvLTree<AnyType extends Comparable<? super AnyType>> {
             this( theElement, null, null );
         }
 
+        AVlNode(int arenaSlot ) {
+            this( null, null, null );
+            slot = arenaSlot;
+        }
+
         AVlNode(AnyType theElement, AVlNode<AnyType> lt, AVlNode<AnyType> rt ) {
             element  = theElement;
             left     = lt;
             right    = rt;
             height   = 0;
+            nodes    = 1;
         }
 
         AnyType           element;      // The data in the node
         AVlNode<AnyType> left;         // Left child
         AVlNode<AnyType> right;        // Right child
-        int               height;       // Height
+        byte              height;       // Height (AVL height stays well under 128)
+        int               nodes;        // Nodes in this subtree, tombstones included
+        boolean           deleted;      // Tombstone (lazy delete)
+        Object            agg;          // Aggregate of the live items in this subtree, if kept
+        int               slot = -1;    // NodeArena slot, -1 if not pooled
     }
 
     /** The tree root. */
     private AVlNode<AnyType> root;
+
+    /** Node pool, or null when nodes are plain allocations. */
+    private NodeArena<AVlNode<AnyType>> arena;
+
+    /** Live items and tombstoned nodes currently in the tree. */
+    private int size;
+    private int tombstones;
+
+    /** Cached largest item and the path root..max along right links, for append (0 = rebuild). */
+    private AnyType maxElement;
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final AVlNode<AnyType>[] spine = (AVlNode<AnyType>[]) new AVlNode[64];   // AVL height stays well under 64
+    private int spineLen;
+
+    /** Lazy-delete settings (see setLazyDelete). */
+    private boolean lazyDelete;
+    private double compactRatio = 0.5;
+    private boolean compactInBackground;
+
+    /**
+     * Single rotations in the insert or remove under way, for its operation event
+     * (see TreeEvents); -1 when not counting. Set operations rotate on several
+     * ForkJoin workers at once, so they never count.
+     */
+    private int rotations = -1;
+
+    /** Monoid kept per subtree, or null (see setAggregate). */
+    private Aggregate<? super AnyType, Object> aggregate;
+
+    /** Membership filter in front of contains, or null (see setMembershipFilter). */
+    private BloomFilter<AnyType> filter;
+
+    /** In-flight background compaction, and mutations made since its snapshot. */
+    private CompletableFuture<AVlNode<AnyType>> pendingCompaction;
+    private int pendingSnapshotSize;
+    private final List<PendingOp<AnyType>> pendingOps = new ArrayList<>( );
 }
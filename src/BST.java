@@ -7,22 +7,92 @@
 ∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*/
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Deque;
 import java.util.Iterator;
+import java.util.List;
 
 public class BST<T extends Comparable<? super T>> implements Iterable<T> {
     private Node<T> root;
     private int size;
+    private final NodeArena<Node<T>> arena;   // null unless pooling was requested
+    private Node<T> maxNode;                  // rightmost node - null when empty
+    // right spine root..maxNode, kept only when rebalancing on degeneration (spineLen 0 = reload)
+    private boolean rebalanceOnDegeneration;
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Node<T>[] spine = (Node<T>[]) new Node[64];
+    private int spineLen;
+    private BloomFilter<T> filter;            // membership filter in front of search - null when off
 
     // Implement the constructor
     public BST() {
+        this(false);
+    }
+
+    // useArena - recycle removed nodes for later inserts and release them all in O(1) on clear.
+    // A node returned by remove is then only valid until the next insert.
+    public BST(boolean useArena) {
         this.root = null;
+        this.arena = useArena ? new NodeArena<>(Node::new, 1024) : null;
+    }
+
+    // new node for data - from the arena when pooling
+    private Node<T> newNode(T data) {
+        if (arena == null) return new Node<>(data);
+        Node<T> n = arena.allocate();
+        n.setValue(data);
+        n.setLeft(null);
+        n.setRight(null);
+        return n;
+    }
+
+    // builds a balanced BST from items already in ascending order (no duplicates) in linear time
+    public static <T extends Comparable<? super T>> BST<T> fromSorted(List<? extends T> sorted) {
+        BST<T> bst = new BST<>();
+        bst.root = buildBalanced(sorted, 0, sorted.size() - 1);
+        bst.size = sorted.size();
+        bst.maxNode = bst.rightmost(bst.root);
+        return bst;
+    }
+
+    private static <T extends Comparable<? super T>> Node<T> buildBalanced(List<? extends T> sorted, int lo, int hi) {
+        if (lo > hi) return null;
+        int mid = (lo + hi) >>> 1;
+        Node<T> n = new Node<>(sorted.get(mid));
+        n.setLeft(buildBalanced(sorted, lo, mid - 1));
+        n.setRight(buildBalanced(sorted, mid + 1, hi));
+        return n;
+    }
+
+    // on - appends that push the right spine past the scapegoat height bound (log base 3/2 of size)
+    // rebuild the offending spine subtree balanced. Existing nodes are relinked, so handles stay valid.
+    public void setRebalanceOnDegeneration(boolean on) {
+        rebalanceOnDegeneration = on;
+        spineLen = 0;
+    }
+
+    // on - keep a Bloom filter in front of search so most misses skip the tree walk.
+    // falsePositiveRate - share of misses that still walk (about 1.44 * log2(1 / rate) bits per item).
+    // Values that compare equal must have equal hash codes, and a value changed through a node
+    // handle (setValue) is not seen by the filter.
+    public void setMembershipFilter(boolean on, double falsePositiveRate) {
+        if (!on) {
+            filter = null;
+            return;
+        }
+        filter = new BloomFilter<>(0, falsePositiveRate);
+        filter.rebuild(this, size);
     }
 
     // Implement the clear method
     public void clear() {
         root = null;
         size = 0;
+        maxNode = null;
+        spineLen = 0;
+        if (arena != null) arena.reset();
+        if (filter != null) filter.clear();
     }
 
     // Implement the size method
@@ -32,95 +102,302 @@ public class BST<T extends Comparable<? super T>> implements Iterable<T> {
 
     // Implement the insert method
     public boolean add(T data) {
-        if (data == null) throw new IllegalArgumentException("null value not allowed");
         int before = size;
-        root = addRecursive(root, data);
+        addNode(data);
         return size > before;
     }
 
-    private Node<T> addRecursive(Node<T> current, T data) {
-        if (current == null) {
-            size++;
-            return new Node<>(data);
+    // inserts data (if not already present) and returns the node that holds it.
+    // Nodes are never moved between values, so the handle stays valid until that value is removed.
+    public Node<T> addNode(T data) {
+        if (data == null) throw new IllegalArgumentException("null value not allowed");
+        TreeEvents.BstOperation event = new TreeEvents.BstOperation();
+        event.begin();
+        int before = size;
+        Node<T> n = insertNode(data);
+        if (filter != null && size != before) {
+            filter.add(data);
+            if (filter.needsRebuild()) filter.rebuild(this, size);
         }
-        int comparisonResult = data.compareTo(current.getValue());
-        if (comparisonResult < 0) {
-            current.setLeft(addRecursive(current.getLeft(), data));
-        } else if (comparisonResult > 0) {
-            current.setRight(addRecursive(current.getRight(), data));
+        event.end();
+        if (event.shouldCommit()) commit(event, "add", data, true);
+        return n;
+    }
+
+    // ends and records a lookup answered from a node handle instead of a search (Parser's
+    // slug index), so that traffic shows up as search events too
+    void recordLookup(TreeEvents.BstOperation event, T data, boolean found) {
+        event.end();
+        if (event.shouldCommit()) commit(event, "search", data, found);
+    }
+
+    // fills in and records an operation event - the depth walk only happens here
+    private void commit(TreeEvents.BstOperation event, String operation, T data, boolean found) {
+        event.operation = operation;
+        event.depth = depthOf(data);
+        event.found = found;
+        event.size = size;
+        event.commit();
+    }
+
+    // edges from the root to data's node, or to the last node on its search path (-1 if empty)
+    private int depthOf(T data) {
+        int depth = -1;
+        for (Node<T> current = root; current != null; depth++) {
+            int comparisonResult = data.compareTo(current.getValue());
+            if (comparisonResult == 0) return depth + 1;
+            current = (comparisonResult < 0) ? current.getLeft() : current.getRight();
         }
-        // if comparisonResult = 0, it is a duplicate and will be ignored
-        return current;
+        return depth;
     }
 
-    // Implement the remove method
-    public Node<T> remove(T data) {
-        if (data == null) return null;
-        Wrapper<Node<T>> removed = new Wrapper<>();
-        root = removeRecursive(root, data, removed);
-        if (removed.value != null) {
-            size--;
+    private Node<T> insertNode(T data) {
+        if (root == null) {
+            size++;
+            return root = maxNode = newNode(data);
+        }
+        // ascending input: hang it off the max, no descent
+        if (data.compareTo(maxNode.getValue()) > 0) return append(data);
+        Node<T> current = root;
+        while (true) {
+            int comparisonResult = data.compareTo(current.getValue());
+            if (comparisonResult == 0) return current; // duplicate - ignored
+            Node<T> next = (comparisonResult < 0) ? current.getLeft() : current.getRight();
+            if (next == null) {
+                Node<T> n = newNode(data);
+                if (comparisonResult < 0) current.setLeft(n);
+                else current.setRight(n);
+                size++;
+                return n;
+            }
+            current = next;
         }
-        return removed.value;
     }
 
-    private Node<T> removeRecursive(Node<T> current, T data, Wrapper<Node<T>> removed) {
-        if (current == null) {
-            return null; // not found
+    // adds a value larger than everything in the tree as the max's right child - O(1)
+    private Node<T> append(T data) {
+        Node<T> n = newNode(data);
+        maxNode.setRight(n);
+        maxNode = n;
+        size++;
+        if (rebalanceOnDegeneration) {
+            if (spineLen == 0) {
+                for (Node<T> x = root; x != null; x = x.getRight()) pushSpine(x);
+            } else {
+                pushSpine(n);
+            }
+            if (spineLen - 1 > Math.log(size) / Math.log(1.5)) rebuildAtScapegoat();
         }
+        return n;
+    }
 
-        int comparisonResult = data.compareTo(current.getValue());
+    private void pushSpine(Node<T> n) {
+        if (spineLen == spine.length) spine = Arrays.copyOf(spine, spineLen << 1);
+        spine[spineLen++] = n;
+    }
 
-        if (comparisonResult < 0) {
-            current.setLeft(removeRecursive(current.getLeft(), data, removed));
-        } else if (comparisonResult > 0) {
-            current.setRight(removeRecursive(current.getRight(), data, removed));
-        } else {
-            removed.value = new Node<>(current.getValue()); // capture what was removed
-            // Case 1: no children
-            if (current.getLeft() == null && current.getRight() == null) {
-                return null;
-            }
-            // Case 2: only one child
-            else if (current.getLeft() == null) {
-                return current.getRight();
-            } else if (current.getRight() == null) {
-                return current.getLeft();
-            }
-            // Case 3: two children
-            else {
-                Node<T> successor = minNode(current.getRight());
-                current.setValue(successor.getValue());
-                current.setRight(removeRecursive(current.getRight(), successor.getValue(), new Wrapper<>()));
+    // the max is too deep: walking up the spine, find the lowest node whose right subtree
+    // holds more than 2/3 of its nodes and rebuild that subtree perfectly balanced.
+    // (Scapegoat-tree rule - the rebuild cost amortizes to O(log n) per append.)
+    private void rebuildAtScapegoat() {
+        int below = 1;   // nodes in the subtree under spine[i]'s right link
+        for (int i = spineLen - 2; i >= 0; i--) {
+            Node<T> t = spine[i];
+            int total = 1 + count(t.getLeft()) + below;
+            if (3 * below > 2 * total) {
+                Node<T> sub = rebuild(t, total);
+                if (i == 0) root = sub;
+                else spine[i - 1].setRight(sub);
+                spineLen = i;
+                for (Node<T> x = sub; x != null; x = x.getRight()) pushSpine(x);
+                return;
             }
+            below = total;
         }
-        return current;
     }
 
-    // helper for min value - case 3
-    private Node<T> minNode(Node<T> node) {
-        Node<T> current = node;
-        while (current.getLeft() != null) {
-            current = current.getLeft();
+    // nodes in a subtree
+    private int count(Node<T> n) {
+        int c = 0;
+        Deque<Node<T>> stack = new ArrayDeque<>();
+        while (n != null || !stack.isEmpty()) {
+            if (n == null) n = stack.pop();
+            c++;
+            if (n.getRight() != null) stack.push(n.getRight());
+            n = n.getLeft();
         }
-        return current;
+        return c;
     }
 
-    // wrapper class - to return removed node through recursion
-    private static final class Wrapper<X> {
-        X value;
+    // relinks the n nodes under t into a balanced subtree; returns its root
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Node<T> rebuild(Node<T> t, int n) {
+        Node<T>[] nodes = (Node<T>[]) new Node[n];
+        int k = 0;
+        Deque<Node<T>> stack = new ArrayDeque<>();
+        Node<T> x = t;
+        while (x != null || !stack.isEmpty()) {
+            while (x != null) {
+                stack.push(x);
+                x = x.getLeft();
+            }
+            x = stack.pop();
+            nodes[k++] = x;
+            x = x.getRight();
+        }
+        return relink(nodes, 0, n - 1);
     }
 
-    // Implement the search method
-    public Node<T> search(T data) {
+    private Node<T> relink(Node<T>[] nodes, int lo, int hi) {
+        if (lo > hi) return null;
+        int mid = (lo + hi) >>> 1;
+        Node<T> n = nodes[mid];
+        n.setLeft(relink(nodes, lo, mid - 1));
+        n.setRight(relink(nodes, mid + 1, hi));
+        return n;
+    }
+
+    private Node<T> rightmost(Node<T> n) {
+        if (n == null) return null;
+        while (n.getRight() != null) n = n.getRight();
+        return n;
+    }
+
+    // Implement the remove method
+    // returns the removed node itself (detached), or null if data wasn't found
+    public Node<T> remove(T data) {
         if (data == null) return null;
+        TreeEvents.BstOperation event = new TreeEvents.BstOperation();
+        event.begin();
+        int depth = -1;   // counted on the way down - the node is gone afterwards
+        Node<T> parent = null;
         Node<T> current = root;
         while (current != null) {
+            depth++;
             int comparisonResult = data.compareTo(current.getValue());
-            if (comparisonResult == 0) return current;
+            if (comparisonResult == 0) break;
+            parent = current;
+            current = (comparisonResult < 0) ? current.getLeft() : current.getRight();
+        }
+        if (current != null) detach(parent, current);
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = "remove";
+            event.depth = depth;
+            event.found = current != null;
+            event.size = size;
+            event.commit();
+        }
+        return current; // null if not found
+    }
+
+    // removes the given node (a handle from addNode/search) with a single descent.
+    // returns false if the node is not in this tree
+    public boolean removeNode(Node<T> node) {
+        if (node == null) return false;
+        TreeEvents.BstOperation event = new TreeEvents.BstOperation();
+        event.begin();
+        T value = node.getValue();
+        int depth = 0;
+        Node<T> parent = null;
+        Node<T> current = root;
+        while (current != null && current != node) {
+            int comparisonResult = value.compareTo(current.getValue());
+            if (comparisonResult == 0) {
+                current = null; // stale handle - value held by another node
+                break;
+            }
+            parent = current;
             current = (comparisonResult < 0) ? current.getLeft() : current.getRight();
+            depth++;
+        }
+        boolean found = current != null;
+        if (found) detach(parent, node);
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = "remove";
+            event.depth = found ? depth : -1;
+            event.found = found;
+            event.size = size;
+            event.commit();
         }
-        return null;
+        return found;
+    }
+
+    // unlinks node from under parent (null = root) and hands it back to the arena
+    private void detach(Node<T> parent, Node<T> node) {
+        Node<T> replacement = unlink(node);
+        // the max has no right child, so its left subtree (or else its parent) holds the new max
+        if (node == maxNode) maxNode = replacement != null ? rightmost(replacement) : parent;
+        spineLen = 0;
+        if (parent == null) root = replacement;
+        else if (parent.getLeft() == node) parent.setLeft(replacement);
+        else parent.setRight(replacement);
+        node.setLeft(null);
+        node.setRight(null);
+        size--;
+        if (filter != null) {
+            filter.noteRemoved(1);
+            if (filter.needsRebuild()) filter.rebuild(this, size);
+        }
+        if (arena != null) arena.release(node, node.slot);
+    }
+
+    // returns the subtree that takes n's place once n is taken out.
+    // Case 3 splices the successor node itself into n's position instead of copying
+    // its value, so every value stays in the node it was inserted into.
+    private Node<T> unlink(Node<T> n) {
+        // Case 1 and 2: zero or one child
+        if (n.getLeft() == null) return n.getRight();
+        if (n.getRight() == null) return n.getLeft();
+        // Case 3: two children
+        Node<T> successorParent = n;
+        Node<T> successor = n.getRight();
+        while (successor.getLeft() != null) {
+            successorParent = successor;
+            successor = successor.getLeft();
+        }
+        if (successorParent != n) {
+            successorParent.setLeft(successor.getRight());
+            successor.setRight(n.getRight());
+        }
+        successor.setLeft(n.getLeft());
+        return successor;
+    }
+
+    // Implement the search method
+    public Node<T> search(T data) {
+        if (data == null) return null;
+        TreeEvents.BstOperation event = new TreeEvents.BstOperation();
+        event.begin();
+        Node<T> current = null;
+        if (filter == null || filter.mightContain(data)) {
+            current = root;
+            while (current != null) {
+                int comparisonResult = data.compareTo(current.getValue());
+                if (comparisonResult == 0) break;
+                current = (comparisonResult < 0) ? current.getLeft() : current.getRight();
+            }
+        }
+        event.end();
+        if (event.shouldCommit()) commit(event, "search", data, current != null);
+        return current;
+    }
+
+    // checks search order (against every ancestor), the size field and the cached max, in parallel.
+    // Works on degenerate trees too - nothing recurses deeper than a few levels.
+    public ValidationReport validate() {
+        TreeValidator<Node<T>, T> v = new TreeValidator<>(Node::getLeft, Node::getRight, Node::getValue, null, null, null, 10);
+        ValidationReport report = v.validate(root, size, -1);
+        if (maxNode != rightmost(root)) report.add("", "cached max " + maxNode + " is not the rightmost node");
+        return report;
+    }
+
+    // snapshot into an immutable read-only index for search-heavy phases
+    public FrozenIndex<T> freeze() {
+        List<T> sorted = new ArrayList<>(size);
+        for (T x : this) sorted.add(x);
+        return new FrozenIndex<>(sorted);
     }
 
     // Implement the iterator method
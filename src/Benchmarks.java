@@ -0,0 +1,583 @@
+/*∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*
+  @file: Benchmarks.java
+  @description: Micro-benchmarks for the tree operations that Proj2 doesn't cover.
+                Each scenario compares a bulk operation against the one-at-a-time baseline.
+  @author: Calvin Malaney
+  @date: October 19, 2026
+∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*/
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+
+public class Benchmarks {
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: java Benchmarks <setops|bulkinsert|churn|offheap|wal|sharded|sorted|validate|complete|bloom|generate|aggregate|jfr|merge> [n]");
+            System.exit(1);
+        }
+        int n = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+
+        switch (args[0]) {
+            case "setops" -> setOps(n);
+            case "bulkinsert" -> bulkInsert(n);
+            case "churn" -> churn(n);
+            case "offheap" -> offHeap(n);
+            case "wal" -> wal(n);
+            case "sharded" -> sharded(n);
+            case "sorted" -> sortedIngest(n);
+            case "validate" -> validate(n);
+            case "complete" -> complete(n);
+            case "bloom" -> bloom(n);
+            case "generate" -> generate(n);
+            case "aggregate" -> aggregate(n);
+            case "jfr" -> jfr(n);
+            case "merge" -> merge(n);
+            default -> {
+                System.err.println("Unknown benchmark: " + args[0]);
+                System.exit(1);
+            }
+        }
+    }
+
+    // random distinct-ish keys from a fixed seed so runs are comparable
+    private static List<Integer> randomKeys(int n, int range, long seed) {
+        Random rnd = new Random(seed);
+        List<Integer> keys = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) keys.add(rnd.nextInt(range));
+        return keys;
+    }
+
+    private static AvLTree<Integer> avlOf(List<Integer> keys) {
+        AvLTree<Integer> t = new AvLTree<>();
+        for (Integer k : keys) t.insert(k);
+        return t;
+    }
+
+    // join-based union/intersection/difference vs element-by-element insert/remove
+    private static void setOps(int n) {
+        int m = Math.max(1, n / 10);
+        List<Integer> big = randomKeys(n, 4 * n, 1);
+        List<Integer> small = randomKeys(m, 4 * n, 2);
+
+        System.out.printf("=== Set operations (n=%,d, m=%,d) ===%n", n, m);
+        for (int round = 0; round < 3; round++) {
+            // union
+            AvLTree<Integer> a = avlOf(big), b = avlOf(small);
+            long start = System.nanoTime();
+            a.union(b);
+            long unionNs = System.nanoTime() - start;
+
+            a = avlOf(big);
+            start = System.nanoTime();
+            for (Integer k : small) a.insert(k);
+            long insertNs = System.nanoTime() - start;
+
+            // intersection: baseline keeps the small side's keys that the big side contains
+            a = avlOf(big);
+            b = avlOf(small);
+            start = System.nanoTime();
+            a.intersection(b);
+            long interNs = System.nanoTime() - start;
+
+            a = avlOf(big);
+            start = System.nanoTime();
+            AvLTree<Integer> common = new AvLTree<>();
+            for (Integer k : small) if (a.contains(k)) common.insert(k);
+            long containsNs = System.nanoTime() - start;
+
+            // difference
+            a = avlOf(big);
+            b = avlOf(small);
+            start = System.nanoTime();
+            a.difference(b);
+            long diffNs = System.nanoTime() - start;
+
+            a = avlOf(big);
+            start = System.nanoTime();
+            for (Integer k : small) a.remove(k);
+            long removeNs = System.nanoTime() - start;
+
+            System.out.printf("round %d  union: %8.3f ms vs insert-each: %8.3f ms%n",
+                    round, TimingUtils.nsToMs(unionNs), TimingUtils.nsToMs(insertNs));
+            System.out.printf("         intersection: %8.3f ms vs contains+insert: %8.3f ms%n",
+                    TimingUtils.nsToMs(interNs), TimingUtils.nsToMs(containsNs));
+            System.out.printf("         difference: %8.3f ms vs remove-each: %8.3f ms%n",
+                    TimingUtils.nsToMs(diffNs), TimingUtils.nsToMs(removeNs));
+        }
+    }
+
+    // insertAll of an unsorted batch vs serial insert, into an empty tree and a half-full one
+    private static void bulkInsert(int n) {
+        List<Integer> existing = randomKeys(n / 2, 4 * n, 3);
+        List<Integer> batch = randomKeys(n, 4 * n, 4);
+
+        System.out.printf("=== Bulk insert (batch=%,d, cores=%d) ===%n", n, Runtime.getRuntime().availableProcessors());
+        for (int round = 0; round < 3; round++) {
+            long serialNs = TimingUtils.timeInsertAVL(new AvLTree<>(), batch);
+            long bulkNs = TimingUtils.timeInsertAllAVL(new AvLTree<>(), batch);
+
+            AvLTree<Integer> a = avlOf(existing);
+            long serialMergeNs = TimingUtils.timeInsertAVL(a, batch);
+            AvLTree<Integer> b = avlOf(existing);
+            long bulkMergeNs = TimingUtils.timeInsertAllAVL(b, batch);
+
+            System.out.printf("round %d  empty tree  serial: %8.3f ms  insertAll: %8.3f ms%n",
+                    round, TimingUtils.nsToMs(serialNs), TimingUtils.nsToMs(bulkNs));
+            System.out.printf("         half full   serial: %8.3f ms  insertAll: %8.3f ms%n",
+                    TimingUtils.nsToMs(serialMergeNs), TimingUtils.nsToMs(bulkMergeNs));
+        }
+    }
+
+    // remove/insert churn on a full tree: bytes allocated per operation, plain vs arena nodes
+    private static void churn(int n) {
+        List<Integer> keys = randomKeys(n, Integer.MAX_VALUE, 5);
+        int ops = 2 * n;   // every key is removed and inserted again
+
+        System.out.printf("=== Churn (n=%,d, ops=%,d) ===%n", n, ops);
+        for (boolean pooled : new boolean[] {false, true}) {
+            BST<Integer> bst = new BST<>(pooled);
+            AvLTree<Integer> avl = new AvLTree<>(pooled);
+            for (Integer k : keys) {
+                bst.add(k);
+                avl.insert(k);
+            }
+
+            Measurement bstChurn = TimingUtils.measure(ops, () -> {
+                for (Integer k : keys) {
+                    bst.remove(k);
+                    bst.add(k);
+                }
+            });
+            Measurement avlChurn = TimingUtils.measure(ops, () -> {
+                for (Integer k : keys) {
+                    avl.remove(k);
+                    avl.insert(k);
+                }
+            });
+
+            System.out.printf("%-6s BST: %8.3f ms %6.1f bytes/op   AVL: %8.3f ms %6.1f bytes/op%n",
+                    pooled ? "arena" : "plain",
+                    TimingUtils.nsToMs(bstChurn.nanos()), bstChurn.bytesPerOp(),
+                    TimingUtils.nsToMs(avlChurn.nanos()), avlChurn.bytesPerOp());
+        }
+    }
+
+    // GC time of full collections with n records resident on-heap (AvLTree) vs off-heap
+    private static void offHeap(int n) {
+        Random rnd = new Random(6);
+        System.out.printf("=== Off-heap vs on-heap (n=%,d) ===%n", n);
+        for (boolean offHeap : new boolean[] {false, true}) {
+            AvLTree<FIFARecord> avl = new AvLTree<>();
+            OffHeapAvlTree off = new OffHeapAvlTree();
+            long start = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                int overall = 50 + rnd.nextInt(45);
+                FIFARecord r = new FIFARecord("player-" + i, "Player " + rnd.nextInt(10_000), "CM",
+                        "Full Player Name " + i, overall, overall + rnd.nextInt(10));
+                if (offHeap) off.insert(r);
+                else avl.insert(r);
+            }
+            long insertNs = System.nanoTime() - start;
+
+            long gcBefore = TimingUtils.gcMillis();
+            for (int i = 0; i < 5; i++) System.gc();
+            long gcMs = TimingUtils.gcMillis() - gcBefore;
+
+            System.out.printf("%-9s insert: %8.3f ms   5 full GCs: %6d ms%n",
+                    offHeap ? "off-heap" : "on-heap", TimingUtils.nsToMs(insertNs), gcMs);
+            off.close();
+        }
+    }
+
+    // BST insert/remove throughput in memory vs with every mutation in the write-ahead log
+    private static void wal(int n) {
+        List<Integer> keys = randomKeys(n, Integer.MAX_VALUE, 7);
+        System.out.printf("=== Write-ahead log (mutations=%,d) ===%n", 2 * n);
+        try {
+            for (int groupSize : new int[] {0, 1, 64, 1024}) {
+                MutationLog log = groupSize == 0 ? null
+                        : new MutationLog(Files.createTempDirectory("wal"), groupSize, 10);
+                BST<Integer> bst = new BST<>();
+                long start = System.nanoTime();
+                for (Integer k : keys) {
+                    if (log != null) log.append("insert", k.toString());
+                    bst.add(k);
+                }
+                for (Integer k : keys) {
+                    if (log != null) log.append("remove", k.toString());
+                    bst.remove(k);
+                }
+                if (log != null) log.close();
+                long ns = System.nanoTime() - start;
+                System.out.printf("%-16s %8.3f ms  %,12.0f mutations/s%n",
+                        groupSize == 0 ? "in memory" : "group of " + groupSize,
+                        TimingUtils.nsToMs(ns), 2 * n / TimingUtils.nsToSec(ns));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // n inserts split across 1..cores writer threads: one AvLTree behind one lock vs ShardedAvlStore
+    private static void sharded(int n) {
+        Random rnd = new Random(8);
+        List<FIFARecord> players = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            int overall = 50 + (int) Math.min(44, Math.abs(rnd.nextGaussian() * 12));
+            players.add(new FIFARecord("player-" + i, "Player " + rnd.nextInt(10_000), "CM",
+                    "Full Player Name " + i, overall, overall));
+        }
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("=== Multi-writer insert (n=%,d, cores=%d) ===%n", n, cores);
+        for (int threads = 1; threads <= Math.max(4, cores); threads <<= 1) {
+            AvLTree<FIFARecord> single = new AvLTree<>();
+            ReentrantLock lock = new ReentrantLock();
+            long singleNs = runWriters(players, threads, r -> {
+                lock.lock();
+                try {
+                    single.insert(r);
+                } finally {
+                    lock.unlock();
+                }
+            });
+
+            ShardedAvlStore store = new ShardedAvlStore();
+            long shardedNs = runWriters(players, threads, store::insert);
+
+            System.out.printf("%2d writers  one lock: %,12.0f inserts/s   sharded (%d shards): %,12.0f inserts/s%n",
+                    threads, n / TimingUtils.nsToSec(singleNs), store.shardCount(), n / TimingUtils.nsToSec(shardedNs));
+        }
+    }
+
+    // each thread inserts its own interleaved slice of players; returns wall time
+    private static long runWriters(List<FIFARecord> players, int threads, Consumer<FIFARecord> insert) {
+        Thread[] workers = new Thread[threads];
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            int first = t;
+            workers[t] = new Thread(() -> {
+                for (int i = first; i < players.size(); i += threads) insert.accept(players.get(i));
+            });
+            workers[t].start();
+        }
+        try {
+            for (Thread w : workers) w.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return System.nanoTime() - start;
+    }
+
+    // ascending vs random insert order for both trees; the BST also with rebalance-on-degeneration
+    private static void sortedIngest(int n) {
+        List<Integer> random = randomKeys(n, Integer.MAX_VALUE, 9);
+        List<Integer> ascending = new ArrayList<>(random);
+        ascending.sort(null);
+        int bstN = Math.min(n, 20_000);   // a plain BST fed ascending keys is a list - keep it small
+        System.out.printf("=== Sorted ingestion (n=%,d, plain BST n=%,d) ===%n", n, bstN);
+        for (int round = 0; round < 3; round++) {
+            long avlSorted = TimingUtils.timeInsertAVL(new AvLTree<>(), ascending);
+            long avlRandom = TimingUtils.timeInsertAVL(new AvLTree<>(), random);
+            long bstSorted = TimingUtils.timeInsertBST(new BST<>(), ascending.subList(0, bstN));
+            long bstRandom = TimingUtils.timeInsertBST(new BST<>(), random.subList(0, bstN));
+            BST<Integer> rebalancing = new BST<>();
+            rebalancing.setRebalanceOnDegeneration(true);
+            long rebSorted = TimingUtils.timeInsertBST(rebalancing, ascending);
+            long rebSearch = TimingUtils.timeSearchBST(rebalancing, random);
+
+            System.out.printf("round %d  AVL sorted: %8.3f ms  random: %8.3f ms%n",
+                    round, TimingUtils.nsToMs(avlSorted), TimingUtils.nsToMs(avlRandom));
+            System.out.printf("         BST sorted: %8.3f ms  random: %8.3f ms  (n=%,d)%n",
+                    TimingUtils.nsToMs(bstSorted), TimingUtils.nsToMs(bstRandom), bstN);
+            System.out.printf("         BST rebalancing sorted: %8.3f ms  then search all: %8.3f ms%n",
+                    TimingUtils.nsToMs(rebSorted), TimingUtils.nsToMs(rebSearch));
+        }
+    }
+
+    // full invariant check of an n-node AVL tree: recursive checkBalance vs parallel validate
+    private static void validate(int n) {
+        List<Integer> keys = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) keys.add(i);
+        AvLTree<Integer> t = AvLTree.fromSorted(keys);
+        System.out.printf("=== Validate (n=%,d, cores=%d) ===%n", n, Runtime.getRuntime().availableProcessors());
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            t.checkBalance();
+            long checkNs = System.nanoTime() - start;
+            start = System.nanoTime();
+            ValidationReport report = t.validate();
+            long validateNs = System.nanoTime() - start;
+            System.out.printf("round %d  checkBalance: %8.3f ms   validate: %8.3f ms  (%s)%n",
+                    round, TimingUtils.nsToMs(checkNs), TimingUtils.nsToMs(validateNs), report);
+        }
+    }
+
+    // top-10 prefix completion: NameIndex vs scanning every player
+    private static void complete(int n) {
+        Random rnd = new Random(10);
+        String[] surnames = {"Silva", "Santos", "Smith", "Kim", "Lopez", "Garcia", "Rossi", "Jones", "Müller", "Nakamura"};
+        List<FIFARecord> players = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            String surname = surnames[rnd.nextInt(surnames.length)];
+            String first = "" + (char) ('A' + rnd.nextInt(26)) + (char) ('a' + rnd.nextInt(26)) + (char) ('a' + rnd.nextInt(26));
+            players.add(new FIFARecord("p" + i + "-" + surname.toLowerCase(), surname + " " + first.charAt(0), "ST",
+                    first + " " + surname, 50 + rnd.nextInt(45), 60));
+        }
+        String[] prefixes = new String[1000];
+        for (int i = 0; i < prefixes.length; i++) {
+            String full = players.get(rnd.nextInt(n)).getFullName().toLowerCase();
+            prefixes[i] = full.substring(0, 1 + rnd.nextInt(Math.min(6, full.length())));
+        }
+
+        System.out.printf("=== Name completion (players=%,d, queries=%,d) ===%n", n, prefixes.length);
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            NameIndex index = NameIndex.build(players, 10);
+            long buildNs = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int found = 0;
+            for (String p : prefixes) found += index.complete(p, 10).size();
+            long indexNs = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int scanned = 0;
+            for (String p : prefixes) {
+                List<FIFARecord> hits = new ArrayList<>();
+                for (FIFARecord r : players)
+                    if (r.getName().toLowerCase().startsWith(p) || r.getFullName().toLowerCase().startsWith(p)
+                            || r.getPlayerSlug().startsWith(p)) hits.add(r);
+                hits.sort(null);
+                scanned += Math.min(10, hits.size());
+            }
+            long scanNs = System.nanoTime() - start;
+
+            System.out.printf("round %d  build: %8.3f ms  index: %8.3f ms  scan: %10.3f ms  (%d / %d results)%n",
+                    round, TimingUtils.nsToMs(buildNs), TimingUtils.nsToMs(indexNs), TimingUtils.nsToMs(scanNs), found, scanned);
+        }
+    }
+
+    // miss-heavy contains (90% absent keys) on an n-item AVL tree, without and with a 1% filter
+    private static void bloom(int n) {
+        Random rnd = new Random(40);
+        AvLTree<Integer> plain = new AvLTree<>();
+        AvLTree<Integer> filtered = new AvLTree<>();
+        filtered.setMembershipFilter(true, 0.01);
+        for (int i = 0; i < n; i++) {
+            int k = rnd.nextInt(Integer.MAX_VALUE) & ~1;   // even keys only
+            plain.insert(k);
+            filtered.insert(k);
+        }
+        int[] probes = new int[2_000_000];
+        List<Integer> present = new ArrayList<>(n);
+        for (Integer k : plain) present.add(k);
+        for (int i = 0; i < probes.length; i++)
+            probes[i] = i % 10 == 0 ? present.get(rnd.nextInt(present.size())) : rnd.nextInt(Integer.MAX_VALUE) | 1;
+
+        System.out.printf("=== Miss-heavy contains (n=%,d, lookups=%,d, 90%% misses) ===%n", n, probes.length);
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            int hitsPlain = 0;
+            for (int q : probes) if (plain.contains(q)) hitsPlain++;
+            long plainNs = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int hitsFiltered = 0;
+            for (int q : probes) if (filtered.contains(q)) hitsFiltered++;
+            long filteredNs = System.nanoTime() - start;
+
+            System.out.printf("round %d  plain: %8.3f ms   filtered: %8.3f ms  (%d / %d hits)%n",
+                    round, TimingUtils.nsToMs(plainNs), TimingUtils.nsToMs(filteredNs), hitsPlain, hitsFiltered);
+        }
+    }
+
+    // synthetic records: generation rate, CSV write and reload rate, and how often compareTo ties
+    private static void generate(int n) {
+        FIFAGenerator gen = new FIFAGenerator(42);
+        System.out.printf("=== Synthetic data (n=%,d) ===%n", n);
+        try {
+            Path csv = Files.createTempFile("synthetic", ".csv");
+            for (int round = 0; round < 3; round++) {
+                long start = System.nanoTime();
+                long[] checksum = {0};
+                gen.forEach(0, n, r -> checksum[0] += r.getOverallRating());
+                long genNs = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                gen.writeCsv(csv, n);
+                long writeNs = System.nanoTime() - start;
+                long bytes = Files.size(csv);
+
+                start = System.nanoTime();
+                int loaded = Parser.forEachRecord(csv.toString(), Integer.MAX_VALUE, r -> checksum[0] -= r.getOverallRating());
+                long loadNs = System.nanoTime() - start;
+
+                System.out.printf("round %d  generate: %8.3f ms (%,.0f rec/s)  writeCsv: %8.3f ms (%.1f MB/s)  reload: %8.3f ms (%,d rows, checksum %d)%n",
+                        round, TimingUtils.nsToMs(genNs), n / TimingUtils.nsToSec(genNs),
+                        TimingUtils.nsToMs(writeNs), bytes / 1e6 / TimingUtils.nsToSec(writeNs),
+                        TimingUtils.nsToMs(loadNs), loaded, checksum[0]);
+            }
+            Files.delete(csv);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        // ties: neighbours in sorted order that share the rating, and that share the name too
+        List<FIFARecord> sorted = gen.list(Math.min(n, 1_000_000));
+        sorted.sort(null);
+        int sameRating = 0, sameName = 0;
+        for (int i = 1; i < sorted.size(); i++) {
+            FIFARecord a = sorted.get(i - 1), b = sorted.get(i);
+            if (a.getOverallRating() != b.getOverallRating()) continue;
+            sameRating++;
+            if (a.getName().equalsIgnoreCase(b.getName())) sameName++;
+        }
+        System.out.printf("adjacent pairs tied on rating: %.1f%%, on rating and name (slug decides): %.1f%%%n",
+                100.0 * sameRating / sorted.size(), 100.0 * sameName / sorted.size());
+    }
+
+    // "average and max potential of players rated a..b": PotentialStats range aggregate vs forEachInRange
+    private static void aggregate(int n) {
+        AvLTree<FIFARecord> t = new AvLTree<>();
+        t.setAggregate(PotentialStats.AGGREGATE);
+        new FIFAGenerator(43).forEach(0, n, t::insert);
+        Random rnd = new Random(43);
+        int queries = 10_000;
+        int[] from = new int[queries], to = new int[queries];
+        for (int i = 0; i < queries; i++) {
+            from[i] = 55 + rnd.nextInt(30);
+            to[i] = from[i] + rnd.nextInt(6);
+        }
+
+        System.out.printf("=== Range aggregates (n=%,d, queries=%,d) ===%n", n, queries);
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            long check = 0;
+            for (int i = 0; i < queries; i++) {
+                // ratings sort best first: from ratingProbe(to) down to just before ratingProbe(from - 1)
+                PotentialStats s = t.aggregate(FIFARecord.ratingProbe(to[i]), FIFARecord.ratingProbe(from[i] - 1));
+                if (i < 100) check += s.sum() + s.max();
+            }
+            long aggNs = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long scanned = 0;
+            for (int i = 0; i < Math.min(queries, 100); i++) {
+                long[] sumMax = {0, Integer.MIN_VALUE};
+                t.forEachInRange(FIFARecord.ratingProbe(to[i]), FIFARecord.ratingProbe(from[i] - 1), r -> {
+                    sumMax[0] += r.getPotential();
+                    sumMax[1] = Math.max(sumMax[1], r.getPotential());
+                });
+                scanned += sumMax[0] + sumMax[1];
+            }
+            long scanNs = System.nanoTime() - start;
+
+            System.out.printf("round %d  aggregate: %8.3f us/query   iterate-and-sum: %10.3f us/query  (checksums %d / %d over the first 100)%n",
+                    round, aggNs / 1e3 / queries, scanNs / 1e3 / Math.min(queries, 100), check, scanned);
+        }
+    }
+
+    // cost of the TreeEvents: tree operations with no recording, with the events at their
+    // default thresholds, and with every operation recorded (threshold 0)
+    private static void jfr(int n) {
+        List<Integer> keys = randomKeys(n, Integer.MAX_VALUE, 44);
+        System.out.printf("=== JFR events (ops=%,d) ===%n", 4 * n);
+        try {
+            for (int round = 0; round < 3; round++) {
+                for (String mode : new String[] {"off", "default threshold", "threshold 0"}) {
+                    Recording recording = null;
+                    if (!mode.equals("off")) {
+                        recording = new Recording();
+                        for (Class<? extends Event> e : List.of(TreeEvents.AvlOperation.class, TreeEvents.BstOperation.class)) {
+                            if (mode.equals("threshold 0")) recording.enable(e).withThreshold(Duration.ZERO);
+                            else recording.enable(e);
+                        }
+                        recording.start();
+                    }
+                    long start = System.nanoTime();
+                    AvLTree<Integer> avl = new AvLTree<>();
+                    BST<Integer> bst = new BST<>();
+                    for (Integer k : keys) {
+                        avl.insert(k);
+                        bst.add(k);
+                    }
+                    for (Integer k : keys) {
+                        bst.search(k);
+                        avl.remove(k);
+                    }
+                    long ns = System.nanoTime() - start;
+
+                    long events = 0;
+                    if (recording != null) {
+                        recording.stop();
+                        Path file = Files.createTempFile("trees", ".jfr");
+                        recording.dump(file);
+                        recording.close();
+                        events = RecordingFile.readAllEvents(file).size();
+                        Files.delete(file);
+                    }
+                    System.out.printf("round %d  %-18s %8.3f ms  %,10d events%n", round, mode, TimingUtils.nsToMs(ns), events);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // four seasons of n players each (same players, ratings drifting), merged into one tree:
+    // load each file, concatenate, dedupe by slug, sort, insert - vs SeasonMerger
+    private static void merge(int n) {
+        final int seasons = 4;
+        System.out.printf("=== Season merge (%d files x %,d rows) ===%n", seasons, n);
+        List<String> files = new ArrayList<>();
+        try {
+            for (int s = 0; s < seasons; s++) {
+                Path csv = Files.createTempFile("season" + s, ".csv");
+                new FIFAGenerator(42).setRatingDistribution(64 + s, 7).writeCsv(csv, n + s * (n / 10));
+                files.add(csv.toString());
+            }
+            for (int round = 0; round < 3; round++) {
+                // the floor: reading and parsing every file once, nothing built
+                long start = System.nanoTime();
+                for (String f : files) Parser.forEachRecord(f, Integer.MAX_VALUE, r -> { });
+                long parseNs = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                Map<String, FIFARecord> bySlug = new HashMap<>();
+                for (String f : files)
+                    for (FIFARecord r : Parser.loadCsv(f, Integer.MAX_VALUE)) bySlug.put(r.getPlayerSlug(), r);
+                List<FIFARecord> all = new ArrayList<>(bySlug.values());
+                Collections.sort(all);
+                AvLTree<FIFARecord> naive = new AvLTree<>();
+                for (FIFARecord r : all) naive.insert(r);
+                long naiveNs = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                AvLTree<FIFARecord> merged = SeasonMerger.buildAvl(files);
+                long mergeNs = System.nanoTime() - start;
+
+                System.out.printf("round %d  parse only: %8.3f ms   load+sort+insert: %8.3f ms   SeasonMerger: %8.3f ms   (%,d players, same=%b)%n",
+                        round, TimingUtils.nsToMs(parseNs), TimingUtils.nsToMs(naiveNs), TimingUtils.nsToMs(mergeNs),
+                        merged.size(), merged.size() == naive.size());
+            }
+            for (String f : files) Files.delete(Path.of(f));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*
+  @file: BloomFilter.java
+  @description: Blocked Bloom filter used by AvLTree and BST to answer most misses without
+                walking the tree. All bits of an item sit in one 512-bit block, so a lookup
+                touches one or two cache lines however many hash probes it makes.
+  @author: Calvin Malaney
+  @date: October 19, 2026
+∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*/
+
+import java.util.Arrays;
+
+// "No" is always right, "maybe" is wrong about falsePositiveRate of the time (once full).
+// Items are hashed with hashCode(), so items that compare equal must have equal hash codes.
+//
+// Bits can't be cleared, so a removed item still answers "maybe" until the filter is rebuilt
+// from the live items. The owning tree counts adds and removes and calls rebuild once
+// needsRebuild() says the filter is overfull or too many of its bits belong to removed items.
+//
+// Sizing: about 1.44 * log2(1 / rate) bits per item plus a little for the blocking, with
+// ln 2 * bits-per-item probes - roughly 10 bits (1.25 bytes) per item at 1%, 15 at 0.1%.
+public final class BloomFilter<T> {
+    private static final int BLOCK_WORDS = 8;           // 8 longs = 512 bits = one cache line
+    private static final int MIN_ITEMS = 1024;
+    private static final double BLOCKING_SLACK = 1.15;  // blocks fill unevenly - extra bits make up for it
+
+    private final double falsePositiveRate;
+    private final double bitsPerItem;
+    private final int probes;
+    private long[] words;
+    private int blocks;
+    private int capacity;   // items the current size was chosen for
+    private int added;      // items added since the last rebuild
+    private int removed;    // of those (or of the rebuilt ones), how many were removed since
+
+    public BloomFilter(int expectedItems, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1)
+            throw new IllegalArgumentException("false positive rate must be in (0, 1): " + falsePositiveRate);
+        this.falsePositiveRate = falsePositiveRate;
+        this.bitsPerItem = -Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)) * BLOCKING_SLACK;
+        this.probes = Math.max(1, Math.min(16, (int) Math.round(bitsPerItem / BLOCKING_SLACK * Math.log(2))));
+        allocate(expectedItems);
+    }
+
+    private void allocate(int expectedItems) {
+        capacity = Math.max(MIN_ITEMS, expectedItems);
+        long bits = (long) Math.ceil(capacity * bitsPerItem);
+        blocks = (int) Math.min(Integer.MAX_VALUE / BLOCK_WORDS, (bits + 511) / 512);
+        words = new long[blocks * BLOCK_WORDS];
+        added = 0;
+        removed = 0;
+    }
+
+    public void add(T x) {
+        long h = mix(x.hashCode());
+        int base = block(h) * BLOCK_WORDS;
+        long g = h;
+        for (int i = 0; i < probes; i++) {
+            g = next(g);
+            int bit = (int) (g >>> 55);   // 0..511
+            words[base + (bit >>> 6)] |= 1L << bit;
+        }
+        added++;
+    }
+
+    // false means x was never added (since the last rebuild or clear)
+    public boolean mightContain(T x) {
+        long h = mix(x.hashCode());
+        int base = block(h) * BLOCK_WORDS;
+        long g = h;
+        for (int i = 0; i < probes; i++) {
+            g = next(g);
+            int bit = (int) (g >>> 55);
+            if ((words[base + (bit >>> 6)] & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    // the owner removed count items that were added - their bits stay set until the next rebuild
+    public void noteRemoved(int count) {
+        removed += count;
+    }
+
+    // overfull (false positives climbing past the target), or half of the items counted are gone
+    public boolean needsRebuild() {
+        return added > capacity || removed > Math.max(MIN_ITEMS, added) / 2;
+    }
+
+    // resizes for twice the live count and re-adds every live item
+    public void rebuild(Iterable<? extends T> live, int liveCount) {
+        allocate(2 * liveCount);
+        for (T x : live) add(x);
+    }
+
+    public void clear() {
+        Arrays.fill(words, 0L);
+        added = 0;
+        removed = 0;
+    }
+
+    public double falsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    public long bytes() {
+        return (long) words.length * Long.BYTES;
+    }
+
+    // which block - the high 32 bits scaled to [0, blocks) without a division
+    private int block(long h) {
+        return (int) (((h >>> 32) * blocks) >>> 32);
+    }
+
+    // spreads hashCode over 64 bits (Integer.hashCode is the value itself)
+    private static long mix(int hash) {
+        long z = hash * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 32)) * 0xD6E8FEB86659FD93L;
+        return z ^ (z >>> 32);
+    }
+
+    // the next probe position: a 64-bit LCG step, read from the top 9 bits
+    private static long next(long g) {
+        return g * 0x5851F42D4C957F2DL + 0x14057B7EF767814FL;
+    }
+}
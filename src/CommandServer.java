@@ -0,0 +1,228 @@
+/*∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*
+  @file: CommandServer.java
+  @description: Long-running server for the Parser command protocol (insert/search/remove/
+                print/size/clear/checkpoint) over a loopback TCP port or a Unix domain socket.
+                Every connection runs on its own virtual thread against one shared Parser.
+  @author: Calvin Malaney
+  @date: October 19, 2026
+∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*/
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Protocol: the client sends one command per line, the same text as a command file line.
+// Each response is framed as "<length>\n<body>\n", the length being the body's size in
+// UTF-8 bytes - so a multi-line "print", an empty body or a player name with a newline
+// in it can't be mistaken for the end of a response (see readResponse). "quit" closes
+// the connection.
+//
+// Requests are pipelined: a client may send many commands without waiting. The server
+// runs every complete line it has read, buffers the responses in order and writes them
+// back with one write per read, so a deep pipeline costs one round trip, not one per command.
+// Blocking reads are fine here - a blocked virtual thread doesn't hold a carrier thread.
+public class CommandServer implements AutoCloseable {
+    private static final int MAX_LINE = 1 << 16;
+
+    private final Parser parser;
+    private final ServerSocketChannel server;
+    private final ExecutorService connections = Executors.newVirtualThreadPerTaskExecutor();
+    private ScheduledExecutorService reporter;
+
+    private final LongAdder requests = new LongAdder();
+    private final AtomicInteger open = new AtomicInteger();
+
+    // serves parser on address (an InetSocketAddress or a UnixDomainSocketAddress)
+    public CommandServer(Parser parser, SocketAddress address) throws IOException {
+        this.parser = parser;
+        if (address instanceof UnixDomainSocketAddress unix) {
+            Files.deleteIfExists(unix.getPath());    // left over from an earlier run
+            server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        } else {
+            server = ServerSocketChannel.open();
+        }
+        server.bind(address, 4096);   // large backlog - thousands of clients connect at once
+    }
+
+    // loopback TCP; port 0 picks a free port (see address())
+    public static CommandServer tcp(Parser parser, int port) throws IOException {
+        return new CommandServer(parser, new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    public static CommandServer unix(Parser parser, Path socket) throws IOException {
+        return new CommandServer(parser, UnixDomainSocketAddress.of(socket));
+    }
+
+    public SocketAddress address() throws IOException {
+        return server.getLocalAddress();
+    }
+
+    // starts accepting connections; returns immediately
+    public CommandServer start() {
+        connections.submit(() -> {
+            while (server.isOpen()) {
+                try {
+                    SocketChannel ch = server.accept();
+                    connections.submit(() -> serve(ch));
+                } catch (IOException e) {
+                    if (server.isOpen()) System.err.println("Accept failed: " + e.getMessage());
+                }
+            }
+        });
+        return this;
+    }
+
+    // prints requests/second and open connections every periodSeconds
+    public synchronized CommandServer reportEvery(int periodSeconds) {
+        if (reporter != null) return this;
+        reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "server-stats");
+            t.setDaemon(true);
+            return t;
+        });
+        long[] last = {0, System.nanoTime()};
+        reporter.scheduleAtFixedRate(() -> {
+            long total = requests.sum();
+            long now = System.nanoTime();
+            double rate = (total - last[0]) * 1e9 / (now - last[1]);
+            last[0] = total;
+            last[1] = now;
+            System.out.printf("%,.0f req/s  %d connections  %,d total%n", rate, open.get(), total);
+        }, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+        return this;
+    }
+
+    // commands answered since start
+    public long requestsServed() {
+        return requests.sum();
+    }
+
+    public int openConnections() {
+        return open.get();
+    }
+
+    // stops accepting and drops every open connection; the Parser is left to the caller
+    @Override
+    public synchronized void close() throws IOException {
+        if (reporter != null) reporter.shutdownNow();
+        if (!server.isOpen()) return;
+        SocketAddress bound = server.getLocalAddress();    // not readable once closed
+        server.close();
+        connections.shutdownNow();    // interrupting a blocked channel read closes the channel
+        if (bound instanceof UnixDomainSocketAddress unix) {
+            Files.deleteIfExists(unix.getPath());
+        }
+    }
+
+    // one connection: read what is available, run every complete line, write all the responses
+    private void serve(SocketChannel ch) {
+        open.incrementAndGet();
+        try (ch) {
+            ByteBuffer in = ByteBuffer.allocate(8192);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            while (ch.read(in) >= 0) {
+                byte[] a = in.array();
+                int start = 0;
+                boolean quit = false;
+                for (int i = 0; i < in.position(); i++) {
+                    if (a[i] != '\n') continue;
+                    String line = new String(a, start, i - start, StandardCharsets.UTF_8).trim();
+                    start = i + 1;
+                    if (line.isEmpty() || line.startsWith("#")) continue;
+                    if (line.equals("quit")) {
+                        quit = true;
+                        break;
+                    }
+                    byte[] body = parser.execute(line.split("\\s+")).getBytes(StandardCharsets.UTF_8);
+                    out.write(Integer.toString(body.length).getBytes(StandardCharsets.US_ASCII));
+                    out.write('\n');
+                    out.write(body);
+                    out.write('\n');
+                    requests.increment();
+                }
+                if (out.size() > 0) {
+                    ByteBuffer reply = ByteBuffer.wrap(out.toByteArray());
+                    while (reply.hasRemaining()) ch.write(reply);
+                    out.reset();
+                }
+                if (quit) return;
+
+                // keep the unfinished line for the next read
+                in.limit(in.position()).position(start);
+                in.compact();
+                if (!in.hasRemaining()) {
+                    if (in.capacity() >= MAX_LINE) return;    // not a command - drop the client
+                    in = ByteBuffer.allocate(in.capacity() << 1).put(in.flip());
+                }
+            }
+        } catch (IOException e) {
+            // client went away or the server is closing
+        } finally {
+            open.decrementAndGet();
+        }
+    }
+
+    // reads one framed response from the server; null at end of stream
+    public static String readResponse(InputStream in) throws IOException {
+        int length = 0, b;
+        boolean any = false;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) {
+                if (!any) return null;
+                throw new EOFException("connection closed inside a response header");
+            }
+            if (b < '0' || b > '9') throw new IOException("bad response header byte: " + b);
+            length = Math.addExact(Math.multiplyExact(length, 10), b - '0');
+            any = true;
+        }
+        byte[] body = in.readNBytes(length);
+        if (body.length < length || in.read() != '\n') throw new EOFException("connection closed inside a response");
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    // java CommandServer <csv> [port | unix:<path>] [walDir]
+    // rows appended to the csv while the server runs are picked up within a second
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: java CommandServer <csv> [port | unix:<path>] [walDir]");
+            return;
+        }
+        String where = args.length > 1 ? args[1] : "7070";
+        long loaded = Files.size(Path.of(args[0]));   // taken first - rows appended during the load are applied twice, harmlessly
+        Parser parser = new Parser(args[0], null, args.length > 2 ? args[2] : null);
+        CsvTailer tailer = parser.follow(Path.of(args[0]), loaded, 1000);
+        CommandServer s = where.startsWith("unix:")
+                ? unix(parser, Path.of(where.substring(5)))
+                : tcp(parser, Integer.parseInt(where));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                tailer.close();
+                s.close();
+                parser.close();
+            } catch (IOException e) {
+                System.err.println("Shutdown: " + e.getMessage());
+            }
+        }));
+        s.start().reportEvery(1);
+        System.out.println("Listening on " + s.address());
+        Thread.currentThread().join();   // until killed
+    }
+}
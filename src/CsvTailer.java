@@ -0,0 +1,238 @@
+/*∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*
+  @file: CsvTailer.java
+  @description: Follows a FIFA player CSV that is being appended to. Each poll reads only
+                the bytes added since the last one and applies the new rows as inserts or
+                updates to the slug index and any attached trees.
+  @author: Calvin Malaney
+  @date: October 19, 2026
+∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*/
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+// A record is complete once a newline is reached outside quotes - the same rule as
+// Parser.readCsvRecord. The quote and newline bytes can't appear inside a multi-byte
+// UTF-8 sequence, so the scan works on raw bytes. A trailing record that is still
+// being written (no newline yet, or an open quoted field) is left for the next poll.
+public class CsvTailer implements AutoCloseable {
+    private static final int CHUNK = 1 << 20;
+
+    private final Path csv;
+    private final SlugIndex players;
+    private AvLTree<FIFARecord> avl;
+    private BST<FIFARecord> bst;
+    private boolean bstTakesNew;       // false - only players already in bst are moved
+    private NameIndex names;
+
+    private Map<String,Integer> idx;   // header columns, read once
+    private long offset;               // bytes consumed: everything before is applied
+    private byte[] buf = new byte[CHUNK];
+
+    private long skipped;              // rows that couldn't be parsed
+
+    private ScheduledExecutorService scheduler;
+    private volatile Exception lastError;
+
+    // follows csv from the beginning; the first poll loads the whole file
+    public CsvTailer(Path csv, SlugIndex players) {
+        this(csv, players, 0);
+    }
+
+    // resumes after startOffset (a value from offset() of an earlier tailer on the same file)
+    public CsvTailer(Path csv, SlugIndex players, long startOffset) {
+        this.csv = csv;
+        this.players = players;
+        this.offset = startOffset;
+    }
+
+    // new and updated rows are also applied to these trees
+    public CsvTailer feedAvl(AvLTree<FIFARecord> avl) {
+        this.avl = avl;
+        return this;
+    }
+
+    public CsvTailer feedBst(BST<FIFARecord> bst) {
+        return feedBst(bst, true);
+    }
+
+    // addNew false - bst holds a chosen subset (Parser's tree): an updated row replaces the
+    // player's node if it is in the tree, and a new player only goes into the index.
+    // Node handles in the index must point into bst; a tailer without a BST drops the handle
+    // of a replaced record, since its node would still hold the old one
+    public CsvTailer feedBst(BST<FIFARecord> bst, boolean addNew) {
+        this.bst = bst;
+        this.bstTakesNew = addNew;
+        return this;
+    }
+
+    // keeps the name autocomplete index in step with new and updated rows
+    public CsvTailer feedNames(NameIndex names) {
+        this.names = names;
+        return this;
+    }
+
+    // byte offset of the first record not yet applied
+    public long offset() {
+        return offset;
+    }
+
+    // reads everything appended since the last poll; returns the number of rows applied
+    public int poll() throws IOException {
+        try (FileChannel ch = FileChannel.open(csv, StandardOpenOption.READ)) {
+            long end = ch.size();
+            if (end < offset) {
+                // file was truncated or replaced - start over, rows are applied as updates
+                offset = 0;
+                idx = null;
+            }
+            if (idx == null && offset > 0) readHeader(ch);
+
+            int applied = 0;
+            int held = 0;        // bytes of an unfinished record carried in buf
+            long pos = offset;
+            while (pos < end) {
+                if (held == buf.length) buf = Arrays.copyOf(buf, buf.length << 1);   // huge record
+                ByteBuffer bb = ByteBuffer.wrap(buf, held, (int) Math.min(buf.length - held, end - pos));
+                int n = ch.read(bb, pos);
+                if (n <= 0) break;
+                pos += n;
+                int len = held + n;
+
+                int start = 0;
+                boolean inQuotes = false;
+                for (int i = 0; i < len; i++) {
+                    byte b = buf[i];
+                    if (b == '"') inQuotes = !inQuotes;
+                    else if (b == '\n' && !inQuotes) {
+                        applied += apply(decode(start, i), pos - len + start);
+                        start = i + 1;
+                        // moved past each record as it is applied, so a failure can't replay earlier rows
+                        offset = pos - len + start;
+                    }
+                }
+                // keep the unfinished record for the next chunk
+                held = len - start;
+                System.arraycopy(buf, start, buf, 0, held);
+            }
+            return applied;
+        }
+    }
+
+    // polls every periodMillis on a background thread, holding lock while it applies rows
+    // (the write lock of whatever guards the index and trees - see Parser.follow)
+    public synchronized void start(long periodMillis, Lock lock) {
+        if (scheduler != null) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "csv-tailer");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            lock.lock();
+            try {
+                poll();
+            } catch (Exception e) {
+                lastError = e;   // keep following; the caller can check lastError()
+            } finally {
+                lock.unlock();
+            }
+        }, 0, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // the most recent failure of a background poll or bad row, or null
+    public Exception lastError() {
+        return lastError;
+    }
+
+    // rows skipped because they couldn't be parsed (e.g. missing columns)
+    public long skipped() {
+        return skipped;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    // text of buf[start, end) without a trailing '\r'
+    private String decode(int start, int end) {
+        if (end > start && buf[end - 1] == '\r') end--;
+        return new String(buf, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    // header on the first record; afterwards one player row. A row that doesn't parse is
+    // skipped and counted (lastError says where) - the rows after it still get applied
+    private int apply(String rec, long at) {
+        if (idx == null) {
+            idx = Parser.headerIndex(rec);
+            return 0;
+        }
+        if (rec.isBlank()) return 0;
+        FIFARecord r;
+        try {
+            r = Parser.parseRecord(rec, idx);
+        } catch (RuntimeException e) {
+            skipped++;
+            lastError = new IllegalArgumentException("Skipped bad row at byte " + at + " of " + csv + ": " + e, e);
+            return 0;
+        }
+        upsert(r);
+        return 1;
+    }
+
+    // a slug seen before replaces its old record everywhere (its rating may have moved it)
+    private void upsert(FIFARecord rec) {
+        String slug = rec.getPlayerSlug();
+        FIFARecord old = players.put(rec);
+        Node<FIFARecord> node = players.node(slug);   // still holds old, if anything
+        if (old != null) {
+            if (avl != null) avl.remove(old);
+            if (names != null) names.remove(old);
+        }
+        if (avl != null) avl.insert(rec);
+        if (names != null) names.insert(rec);
+        if (node != null) {
+            if (bst != null && bst.removeNode(node)) players.setNode(slug, bst.addNode(rec));
+            else players.setNode(slug, null);
+        } else if (bst != null && bstTakesNew) {
+            players.setNode(slug, bst.addNode(rec));
+        }
+    }
+
+    // resuming mid-file: the header is the first record of the file
+    private void readHeader(FileChannel ch) throws IOException {
+        ByteBuffer bb = ByteBuffer.allocate(8192);
+        long pos = 0;
+        boolean inQuotes = false;
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        while (true) {
+            bb.clear();
+            int n = ch.read(bb, pos);
+            if (n <= 0) throw new IOException("No header in " + csv);
+            for (int i = 0; i < n; i++) {
+                byte b = bb.get(i);
+                if (b == '"') inQuotes = !inQuotes;
+                else if (b == '\n' && !inQuotes) {
+                    idx = Parser.headerIndex(line.toString(StandardCharsets.UTF_8).stripTrailing());
+                    return;
+                }
+                line.write(b);
+            }
+            pos += n;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*
+  @file: FIFAGenerator.java
+  @description: Seeded generator of synthetic FIFARecords for scaling benchmarks - streams
+                records into a consumer or writes them as a CSV that Parser can load. The
+                same seed and settings always give the same records.
+  @author: Calvin Malaney
+  @date: October 19, 2026
+∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*/
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+// Shape of the data, after the real export:
+// - overall rating is roughly normal (mean 66, sd 7) clamped to 40..94, so about a third
+//   of all players share the five most common ratings
+// - surnames come from a fixed pool with a skewed pick (a few are very common, like
+//   Silva or Smith), and the short name is "Surname F" - so within a rating many players
+//   tie on name too and only the slug separates them, the slow path of compareTo
+// - potential is at least the overall rating, higher for weaker (younger) players
+// Each record is drawn from its own random stream (seed, index), so record i is the same
+// whether it is generated alone, in a batch or in a CSV.
+public class FIFAGenerator {
+    private static final String[] SYLLABLES = {
+        "sa", "ma", "ro", "li", "ve", "ko", "na", "ta", "ri", "do", "ga", "mi", "lo", "se", "ba",
+        "ne", "ka", "to", "pe", "ra", "di", "no", "la", "mu", "ki", "so", "be", "fa", "gu", "zi"
+    };
+    private static final String[] DEFAULT_POSITIONS = {"GK", "CB", "LB", "RB", "CDM", "CM", "CAM", "LM", "RM", "LW", "RW", "ST"};
+    private static final double[] DEFAULT_POSITION_WEIGHTS = {8, 18, 8, 8, 9, 11, 8, 5, 5, 4, 4, 12};
+
+    private final long seed;
+    private int surnamePool = 5000;
+    private int minNameSyllables = 2, maxNameSyllables = 4;
+    private double ratingMean = 66, ratingSd = 7;
+    private String[] positions = DEFAULT_POSITIONS;
+    private double[] positionCumulative = cumulative(DEFAULT_POSITION_WEIGHTS);
+    private String[] surnames;   // built on first use, from the seed
+
+    public FIFAGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    // positions and their relative weights (e.g. {"GK", "ST"} with {1, 3})
+    public FIFAGenerator setPositionMix(String[] positions, double[] weights) {
+        if (positions.length == 0 || positions.length != weights.length)
+            throw new IllegalArgumentException("need one weight per position");
+        this.positions = positions.clone();
+        this.positionCumulative = cumulative(weights);
+        return this;
+    }
+
+    // length of generated names in syllables (2 letters each), for surnames and first names
+    public FIFAGenerator setNameSyllables(int min, int max) {
+        if (min < 1 || max < min) throw new IllegalArgumentException("bad syllable range " + min + ".." + max);
+        minNameSyllables = min;
+        maxNameSyllables = max;
+        surnames = null;
+        return this;
+    }
+
+    // distinct surnames - fewer means more players tie on rating and name
+    public FIFAGenerator setSurnamePool(int size) {
+        if (size < 1) throw new IllegalArgumentException("surname pool must be positive");
+        surnamePool = size;
+        surnames = null;
+        return this;
+    }
+
+    public FIFAGenerator setRatingDistribution(double mean, double sd) {
+        ratingMean = mean;
+        ratingSd = sd;
+        return this;
+    }
+
+    // record number index (0-based)
+    public FIFARecord record(long index) {
+        if (surnames == null) surnames = buildSurnames();
+        SplittableRandom rnd = new SplittableRandom(mix(seed ^ mix(index + 1)));
+
+        // u^3 favours the front of the pool: the first 1% of surnames get about a fifth of the players
+        double u = rnd.nextDouble();
+        String surname = surnames[(int) (u * u * u * surnames.length)];
+        String first = name(rnd);
+        String position = positions[pick(positionCumulative, rnd.nextDouble())];
+
+        int overall = (int) Math.round(ratingMean + ratingSd * gaussian(rnd));
+        overall = Math.max(40, Math.min(94, overall));
+        int growth = (int) Math.round(Math.max(0, (75 - overall) * 0.4 + 3 * gaussian(rnd)));
+        int potential = Math.min(99, overall + growth);
+
+        String slug = "p" + index + "-" + surname.toLowerCase(Locale.ROOT) + "-" + Character.toLowerCase(first.charAt(0));
+        return new FIFARecord(slug, surname + " " + first.charAt(0), position, first + " " + surname, overall, potential);
+    }
+
+    // hands records from .. from + count - 1 to sink, one at a time
+    public void forEach(long from, long count, Consumer<? super FIFARecord> sink) {
+        for (long i = from; i < from + count; i++) sink.accept(record(i));
+    }
+
+    public List<FIFARecord> list(int count) {
+        List<FIFARecord> out = new ArrayList<>(count);
+        forEach(0, count, out::add);
+        return out;
+    }
+
+    // writes records 0 .. count - 1 as a CSV with the columns Parser.headerIndex needs
+    public void writeCsv(Path path, long count) throws IOException {
+        try (Writer w = new BufferedWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8), 1 << 16)) {
+            w.write("player_slug,name,full_name,best_position,overall_rating,potential\n");
+            StringBuilder sb = new StringBuilder(128);
+            for (long i = 0; i < count; i++) {
+                FIFARecord r = record(i);
+                sb.setLength(0);
+                sb.append(r.getPlayerSlug()).append(',')
+                  .append(r.getName()).append(',')
+                  .append(r.getFullName()).append(',')
+                  .append(r.getBestPosition()).append(',')
+                  .append(r.getOverallRating()).append(',')
+                  .append(r.getPotential()).append('\n');
+                w.append(sb);
+            }
+        }
+    }
+
+    private String[] buildSurnames() {
+        SplittableRandom rnd = new SplittableRandom(mix(seed));
+        String[] out = new String[surnamePool];
+        for (int i = 0; i < out.length; i++) out[i] = name(rnd);
+        return out;
+    }
+
+    // a capitalised name of minNameSyllables..maxNameSyllables syllables (letters only, so no CSV quoting)
+    private String name(SplittableRandom rnd) {
+        int syllables = minNameSyllables + rnd.nextInt(maxNameSyllables - minNameSyllables + 1);
+        StringBuilder sb = new StringBuilder(syllables * 2);
+        for (int i = 0; i < syllables; i++) sb.append(SYLLABLES[rnd.nextInt(SYLLABLES.length)]);
+        sb.setCharAt(0, Character.toUpperCase(sb.charAt(0)));
+        return sb.toString();
+    }
+
+    private static double[] cumulative(double[] weights) {
+        double[] c = new double[weights.length];
+        double total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] < 0) throw new IllegalArgumentException("negative weight " + weights[i]);
+            total += weights[i];
+            c[i] = total;
+        }
+        if (total <= 0) throw new IllegalArgumentException("weights sum to zero");
+        for (int i = 0; i < c.length; i++) c[i] /= total;
+        return c;
+    }
+
+    private static int pick(double[] cumulative, double u) {
+        int i = 0;
+        while (i < cumulative.length - 1 && u >= cumulative[i]) i++;
+        return i;
+    }
+
+    // standard normal by Box-Muller (one of the pair)
+    private static double gaussian(SplittableRandom rnd) {
+        double u1 = 1.0 - rnd.nextDouble();
+        return Math.sqrt(-2 * Math.log(u1)) * Math.cos(2 * Math.PI * rnd.nextDouble());
+    }
+
+    // SplitMix64 finalizer - turns (seed, index) into well-spread stream seeds
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -6,6 +6,7 @@
   @author: Calvin Malaney
   @date: September 23, 2025
 ∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*/
+import java.util.Locale;
 import java.util.Objects;
 
 public class FIFARecord implements Comparable<FIFARecord> {
@@ -48,6 +49,12 @@ public class FIFARecord implements Comparable<FIFARecord> {
         this.potential = copy.potential;
     }
 
+    // search key that sorts before every real player with this rating (and after every
+    // better-rated one) - for range bounds, never stored
+    public static FIFARecord ratingProbe(int overallRating) {
+        return new FIFARecord("", "", "", "", overallRating, 0);
+    }
+
     // toString method - to show key info and the players overall rating
     @Override
     public String toString() {
@@ -67,6 +74,13 @@ public class FIFARecord implements Comparable<FIFARecord> {
         return Objects.equals(this.playerSlug, other.playerSlug);
     }
 
+    // hashCode method - by slug like equals, ignoring case like compareTo, so records that
+    // match either way hash alike (the trees' membership filters rely on it)
+    @Override
+    public int hashCode() {
+        return playerSlug == null ? 0 : playerSlug.toLowerCase(Locale.ROOT).hashCode();
+    }
+
     // compareTo method
     @Override
     public int compareTo(FIFARecord o) {
@@ -0,0 +1,141 @@
+/*∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*
+  @file: FrozenIndex.java
+  @description: Immutable search index built from a BST/AVL tree. Items are stored in
+                Eytzinger (BFS) order in one flat array so lookups walk the array with
+                no node pointers to chase.
+  @author: Calvin Malaney
+  @date: October 19, 2026
+∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*/
+
+// CONSTRUCTION: with a list of items in ascending order (use AvLTree.freeze / BST.freeze)
+//
+// ******************PUBLIC OPERATIONS*********************
+// boolean contains( x )  --> Return true if x is present
+// AnyType get( x )       --> Return the stored item equal to x, or null
+// int size( )            --> Return number of items
+// AvLTree thawAVL( )     --> Rebuild a mutable AVL tree
+// BST thawBST( )         --> Rebuild a mutable BST
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Read-only index in Eytzinger layout: slot 1 is the root and the children
+ * of slot k are 2k and 2k+1. The top levels of the implicit tree share a few
+ * cache lines, and the next slot is computed from the sign of the comparison
+ * instead of branching on it.
+ */
+public final class FrozenIndex<AnyType extends Comparable<? super AnyType>> implements Iterable<AnyType> {
+    private final Object[] items;   // 1-based, slot 0 unused
+    private final int size;
+
+    /**
+     * Build the index.
+     * @param sorted items in ascending order, no duplicates.
+     */
+    FrozenIndex( List<? extends AnyType> sorted ) {
+        size = sorted.size( );
+        items = new Object[size + 1];
+        fill( sorted.iterator( ), 1 );
+    }
+
+    // in-order walk of the implicit tree assigns the sorted items to their BFS slots
+    private void fill( Iterator<? extends AnyType> it, int k ) {
+        if (k > size) return;
+        fill( it, 2 * k );
+        items[k] = it.next( );
+        fill( it, 2 * k + 1 );
+    }
+
+    /**
+     * Find an item in the index.
+     * @param x the item to search for.
+     * @return true if x is found.
+     */
+    public boolean contains( AnyType x ) {
+        return get( x ) != null;
+    }
+
+    /**
+     * Find the stored item equal to x.
+     * @param x the item to search for.
+     * @return the stored item, or null if not present.
+     */
+    @SuppressWarnings("unchecked")
+    public AnyType get( AnyType x ) {
+        Object[] a = items;
+        int n = size;
+        int k = 1;
+        while (k <= n) {
+            int c = ((AnyType) a[k]).compareTo( x );
+            if (c == 0) return (AnyType) a[k];
+            k = (k << 1) | (c >>> 31);   // right child when a[k] < x
+        }
+        return null;
+    }
+
+    /**
+     * Return the number of items in the index.
+     */
+    public int size( ) {
+        return size;
+    }
+
+    /**
+     * Rebuild a mutable AVL tree with the same items in linear time.
+     */
+    public AvLTree<AnyType> thawAVL( ) {
+        return AvLTree.fromSorted( sortedItems( ) );
+    }
+
+    /**
+     * Rebuild a mutable (balanced) BST with the same items in linear time.
+     */
+    public BST<AnyType> thawBST( ) {
+        return BST.fromSorted( sortedItems( ) );
+    }
+
+    private List<AnyType> sortedItems( ) {
+        List<AnyType> out = new ArrayList<>( size );
+        for (AnyType x : this) out.add( x );
+        return out;
+    }
+
+    /**
+     * Iterate over the items in sorted order.
+     */
+    public Iterator<AnyType> iterator( ) {
+        return new Iterator<>( ) {
+            private int k = leftmost( 1 );
+
+            // the smallest slot in the subtree rooted at k
+            private int leftmost( int k ) {
+                if (k > size) return 0;
+                while (2 * k <= size) k = 2 * k;
+                return k;
+            }
+
+            @Override
+            public boolean hasNext( ) {
+                return k != 0;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public AnyType next( ) {
+                if (k == 0) throw new NoSuchElementException( );
+                AnyType x = (AnyType) items[k];
+                if (2 * k + 1 <= size) {
+                    k = leftmost( 2 * k + 1 );
+                } else {
+                    // climb while we are a right child; the parent of a left child is next
+                    while ((k & 1) == 1) k >>>= 1;
+                    k >>>= 1;
+                }
+                return x;
+            }
+        };
+    }
+}
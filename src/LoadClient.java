@@ -0,0 +1,111 @@
+/*∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*
+  @file: LoadClient.java
+  @description: Load generator for CommandServer. Opens many concurrent connections (one
+                virtual thread each), sends pipelined batches of search/insert/remove commands
+                for slugs from the CSV and reports sustained requests/second and batch latency.
+  @author: Calvin Malaney
+  @date: October 19, 2026
+∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*/
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Every client loops until the deadline: send `depth` commands in one write, then read
+// `depth` responses (length-prefixed, see CommandServer.readResponse). writePercent of the commands are
+// inserts or removes (half each), the rest are searches.
+public class LoadClient {
+
+    // java LoadClient <port | unix:<path>> <csv> [clients] [seconds] [depth] [writePercent]
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: java LoadClient <port | unix:<path>> <csv> [clients] [seconds] [depth] [writePercent]");
+            return;
+        }
+        SocketAddress address = args[0].startsWith("unix:")
+                ? UnixDomainSocketAddress.of(Path.of(args[0].substring(5)))
+                : new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(args[0]));
+        int clients = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        int depth = args.length > 4 ? Integer.parseInt(args[4]) : 16;
+        int writePercent = args.length > 5 ? Integer.parseInt(args[5]) : 10;
+
+        List<String> slugs = new ArrayList<>();
+        Parser.forEachRecord(args[1], 1_000_000, r -> slugs.add(r.getPlayerSlug()));
+        if (slugs.isEmpty()) {
+            System.err.println("No players in " + args[1]);
+            return;
+        }
+
+        LongAdder done = new LongAdder();
+        LongAdder batchNanos = new LongAdder();
+        LongAdder batches = new LongAdder();
+        AtomicInteger failed = new AtomicInteger();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+
+        long begin = System.nanoTime();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                pool.submit(() -> {
+                    try {
+                        run(address, slugs, depth, writePercent, deadline, done, batchNanos, batches);
+                    } catch (IOException e) {
+                        if (failed.getAndIncrement() == 0) System.err.println("Client failed: " + e);
+                    }
+                });
+            }
+        }   // waits for every client
+        double secs = (System.nanoTime() - begin) / 1e9;
+
+        long total = done.sum();
+        System.out.printf("%d clients, depth %d, %d%% writes: %,d requests in %.1f s = %,.0f req/s%n",
+                clients, depth, writePercent, total, secs, total / secs);
+        if (batches.sum() > 0)
+            System.out.printf("mean batch round trip %.3f ms%n", batchNanos.sum() / 1e6 / batches.sum());
+        if (failed.get() > 0) System.out.println(failed.get() + " clients failed");
+    }
+
+    private static void run(SocketAddress address, List<String> slugs, int depth, int writePercent, long deadline,
+                            LongAdder done, LongAdder batchNanos, LongAdder batches) throws IOException {
+        try (SocketChannel ch = SocketChannel.open(address)) {
+            InputStream in = new BufferedInputStream(Channels.newInputStream(ch), 1 << 16);
+            ThreadLocalRandom rnd = ThreadLocalRandom.current();
+            StringBuilder batch = new StringBuilder();
+            while (System.nanoTime() < deadline) {
+                batch.setLength(0);
+                for (int i = 0; i < depth; i++) {
+                    String slug = slugs.get(rnd.nextInt(slugs.size()));
+                    int roll = rnd.nextInt(100);
+                    String op = roll >= writePercent ? "search" : (roll & 1) == 0 ? "insert" : "remove";
+                    batch.append(op).append(' ').append(slug).append('\n');
+                }
+                long t0 = System.nanoTime();
+                ByteBuffer req = ByteBuffer.wrap(batch.toString().getBytes(StandardCharsets.UTF_8));
+                while (req.hasRemaining()) ch.write(req);
+                for (int got = 0; got < depth; got++) {
+                    if (CommandServer.readResponse(in) == null) throw new IOException("server closed the connection");
+                }
+                batchNanos.add(System.nanoTime() - t0);
+                batches.increment();
+                done.add(depth);
+            }
+            ch.write(ByteBuffer.wrap("quit\n".getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*
+  @file: Measurement.java
+  @description: What one timed benchmark phase cost - wall time, bytes allocated and
+                garbage collection activity - as returned by TimingUtils.measure.
+  @author: Calvin Malaney
+  @date: October 19, 2026
+∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*/
+
+import java.util.Locale;
+
+public final class Measurement {
+    private final long ops;
+    private final long nanos;
+    private final long allocatedBytes;   // -1 if the JVM can't tell
+    private final long gcCount;
+    private final long gcMillis;
+
+    Measurement(long ops, long nanos, long allocatedBytes, long gcCount, long gcMillis) {
+        this.ops = ops;
+        this.nanos = nanos;
+        this.allocatedBytes = allocatedBytes;
+        this.gcCount = gcCount;
+        this.gcMillis = gcMillis;
+    }
+
+    public long ops() { return ops; }
+
+    public long nanos() { return nanos; }
+
+    public long allocatedBytes() { return allocatedBytes; }
+
+    /** Bytes allocated per operation (-1 if allocation isn't measurable). */
+    public double bytesPerOp() {
+        return allocatedBytes < 0 ? -1 : (double) allocatedBytes / Math.max(1, ops);
+    }
+
+    /** Collections that ran during the phase, by any collector. */
+    public long gcCount() { return gcCount; }
+
+    /** Time the collectors reported for the phase, in ms. */
+    public long gcMillis() { return gcMillis; }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "%8.3f ms %9.1f B/op  GC %3d x %5d ms",
+                TimingUtils.nsToMs(nanos), bytesPerOp(), gcCount, gcMillis);
+    }
+}
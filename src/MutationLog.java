@@ -0,0 +1,217 @@
+/*∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*
+  @file: MutationLog.java
+  @description: Append-only write-ahead log of the insert/remove/clear commands applied by
+                Parser, with group commit (fsync per batch of records or time window),
+                checkpoints to a snapshot file, and replay of the log tail on startup.
+  @author: Calvin Malaney
+  @date: October 19, 2026
+∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*/
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+// Files in the log directory:
+//   wal.log       - one line per mutation: "<crc32 hex> <command> [slug]"
+//   snapshot.txt  - slugs in the tree at the last checkpoint, one per line
+// A line is only trusted if its checksum matches, so a torn write at the end of the log
+// (crash mid-append) is detected on replay and cut off.
+//
+// Group commit: append() only buffers. The buffer is written and fsynced once groupSize
+// records are waiting, or groupMillis after the oldest one (by a background flusher),
+// whichever comes first. A caller that needs its own record on disk calls awaitDurable.
+public final class MutationLog implements AutoCloseable {
+    private final Path logPath;
+    private final Path snapshotPath;
+    private final int groupSize;
+    private final long groupMillis;
+    private FileChannel channel;
+    private final ScheduledExecutorService flusher;
+
+    private ByteBuffer pending = ByteBuffer.allocate(64 * 1024);
+    private int pendingCount;
+    private long appendedSeq;      // sequence number of the last appended record
+    private long durableSeq;       // sequence number of the last fsynced record
+    private long logRecords;       // records in wal.log since the last checkpoint
+    private final CRC32 crc = new CRC32();
+
+    // dir - created if missing; groupSize / groupMillis - group commit limits
+    public MutationLog(Path dir, int groupSize, long groupMillis) throws IOException {
+        if (groupSize < 1 || groupMillis < 1) throw new IllegalArgumentException("group limits must be positive");
+        Files.createDirectories(dir);
+        this.logPath = dir.resolve("wal.log");
+        this.snapshotPath = dir.resolve("snapshot.txt");
+        this.groupSize = groupSize;
+        this.groupMillis = groupMillis;
+        this.channel = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // new records go after the existing ones even if recover is never called
+        // (recover moves this back if it cuts off a damaged tail)
+        channel.position(channel.size());
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "wal-flusher");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, groupMillis, groupMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // feeds apply the snapshot (as insert commands) and then every intact logged command.
+    // A damaged tail is truncated so new records follow the last good one. Returns commands replayed.
+    public synchronized int recover(Consumer<String[]> apply) throws IOException {
+        int replayed = 0;
+        if (Files.exists(snapshotPath)) {
+            List<String> slugs = Files.readAllLines(snapshotPath, StandardCharsets.UTF_8);
+            for (String slug : slugs) {
+                if (slug.isBlank()) continue;
+                apply.accept(new String[] {"insert", slug.trim()});
+                replayed++;
+            }
+        }
+
+        byte[] bytes = Files.readAllBytes(logPath);
+        int good = 0;    // end of the last intact line
+        int start = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] != '\n') continue;
+            String line = new String(bytes, start, i - start, StandardCharsets.UTF_8);
+            String[] command = verify(line);
+            if (command == null) break;    // torn or corrupt - stop here
+            apply.accept(command);
+            replayed++;
+            logRecords++;
+            good = i + 1;
+            start = i + 1;
+        }
+        if (good < bytes.length) channel.truncate(good);
+        channel.position(good);
+        return replayed;
+    }
+
+    // buffers one mutation; returns its sequence number for awaitDurable
+    public synchronized long append(String... command) throws IOException {
+        byte[] body = String.join(" ", command).getBytes(StandardCharsets.UTF_8);
+        crc.reset();
+        crc.update(body);
+        int need = 8 + 1 + body.length + 1;
+        if (pending.remaining() < need) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + need));
+            pending.flip();
+            bigger.put(pending);
+            pending = bigger;
+        }
+        putHex(pending, crc.getValue());
+        pending.put((byte) ' ').put(body).put((byte) '\n');
+        pendingCount++;
+        logRecords++;
+        appendedSeq++;
+        if (pendingCount >= groupSize) flush();
+        return appendedSeq;
+    }
+
+    // blocks until record seq is on disk (at most about groupMillis, then forces the batch)
+    public synchronized void awaitDurable(long seq) throws IOException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(groupMillis);
+        while (durableSeq < seq) {
+            long left = deadline - System.nanoTime();
+            if (left <= 0) {
+                flush();
+                break;
+            }
+            try {
+                TimeUnit.NANOSECONDS.timedWait(this, left);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                flush();
+                break;
+            }
+        }
+    }
+
+    // writes and fsyncs everything buffered
+    public synchronized void flush() throws IOException {
+        if (pendingCount == 0) return;
+        pending.flip();
+        while (pending.hasRemaining()) channel.write(pending);
+        pending.clear();
+        channel.force(false);
+        pendingCount = 0;
+        durableSeq = appendedSeq;
+        notifyAll();
+    }
+
+    // eight lower-case hex digits
+    private static void putHex(ByteBuffer buf, long value) {
+        for (int shift = 28; shift >= 0; shift -= 4) {
+            buf.put((byte) Character.forDigit((int) (value >>> shift) & 0xF, 16));
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            System.err.println("WAL flush failed: " + e.getMessage());
+        }
+    }
+
+    // records written since the last checkpoint (to decide when to checkpoint)
+    public synchronized long recordsSinceCheckpoint() {
+        return logRecords;
+    }
+
+    // writes the tree contents as the new snapshot, then empties the log
+    public synchronized void checkpoint(Iterable<FIFARecord> contents) throws IOException {
+        flush();
+        Path tmp = snapshotPath.resolveSibling("snapshot.tmp");
+        try (BufferedWriter w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            for (FIFARecord r : contents) {
+                w.write(r.getPlayerSlug());
+                w.newLine();
+            }
+        }
+        try (FileChannel c = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            c.force(true);
+        }
+        Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        // the snapshot now covers every logged record
+        channel.truncate(0);
+        channel.position(0);
+        channel.force(true);
+        logRecords = 0;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        flusher.shutdownNow();
+        flush();
+        channel.close();
+    }
+
+    // the command on a log line, or null if the checksum doesn't match
+    private String[] verify(String line) {
+        int space = line.indexOf(' ');
+        if (space != 8) return null;
+        String body = line.substring(space + 1);
+        crc.reset();
+        crc.update(body.getBytes(StandardCharsets.UTF_8));
+        long expected;
+        try {
+            expected = Long.parseLong(line.substring(0, 8), 16);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return expected == crc.getValue() ? body.split(" ") : null;
+    }
+}
@@ -0,0 +1,275 @@
+/*∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*
+  @file: NameIndex.java
+  @description: Prefix (autocomplete) index over player names, full names and slugs - a
+                compact radix trie whose nodes cache the best-rated players below them, so a
+                lookup costs the prefix length plus the number of results.
+  @author: Calvin Malaney
+  @date: October 19, 2026
+∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*/
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+// Keys are lower-cased; a player is indexed under its name, full name and slug (each once).
+// Edges carry whole substrings, and a node has a child only where keys branch, so the
+// trie has at most about two nodes per distinct key.
+//
+// Every node keeps the top maxK distinct players of its subtree in FIFARecord order
+// (best rating first). A lookup walks the prefix and returns the first k of that list.
+// Insert offers the player to each node on its key paths. Remove rebuilds the list only
+// on the path nodes that held the player, from their own players and their children's lists.
+public class NameIndex {
+    private static final FIFARecord[] NONE = new FIFARecord[0];
+    private static final char[] NO_CHARS = new char[0];
+    private static final TrieNode[] NO_KIDS = new TrieNode[0];
+
+    private static final class TrieNode {
+        String label;                          // edge label from the parent ("" for the root)
+        char[] firsts = NO_CHARS;              // first char of each child's label, sorted
+        TrieNode[] kids = NO_KIDS;
+        int kidCount;
+        FIFARecord[] here = NONE;              // players with a key ending exactly here
+        int hereCount;
+        FIFARecord[] top = NONE;               // best players in this subtree, best first
+        int topCount;
+
+        TrieNode(String label) {
+            this.label = label;
+        }
+
+        int child(char c) {
+            return Arrays.binarySearch(firsts, 0, kidCount, c);
+        }
+
+        void addChild(TrieNode kid) {
+            char c = kid.label.charAt(0);
+            int at = -child(c) - 1;
+            if (kidCount == kids.length) {
+                firsts = Arrays.copyOf(firsts, Math.max(2, kidCount * 2));
+                kids = Arrays.copyOf(kids, firsts.length);
+            }
+            System.arraycopy(firsts, at, firsts, at + 1, kidCount - at);
+            System.arraycopy(kids, at, kids, at + 1, kidCount - at);
+            firsts[at] = c;
+            kids[at] = kid;
+            kidCount++;
+        }
+
+        void removeChild(int i) {
+            System.arraycopy(firsts, i + 1, firsts, i, kidCount - i - 1);
+            System.arraycopy(kids, i + 1, kids, i, kidCount - i - 1);
+            kids[--kidCount] = null;
+        }
+
+        void addHere(FIFARecord r) {
+            for (int i = 0; i < hereCount; i++) if (here[i] == r) return;
+            if (hereCount == here.length) here = Arrays.copyOf(here, Math.max(1, hereCount * 2));
+            here[hereCount++] = r;
+        }
+
+        boolean removeHere(FIFARecord r) {
+            for (int i = 0; i < hereCount; i++) {
+                if (here[i] != r) continue;
+                here[i] = here[--hereCount];
+                here[hereCount] = null;
+                return true;
+            }
+            return false;
+        }
+
+        boolean inTop(FIFARecord r) {
+            for (int i = 0; i < topCount; i++) if (top[i] == r) return true;
+            return false;
+        }
+    }
+
+    private final TrieNode root = new TrieNode("");
+    private final int maxK;
+    private int size;
+
+    // maxK - the most results a lookup can return (and the list kept per node)
+    public NameIndex(int maxK) {
+        if (maxK < 1) throw new IllegalArgumentException("maxK must be positive");
+        this.maxK = maxK;
+    }
+
+    // indexes every player at once: keys first, then one bottom-up pass fills the lists
+    public static NameIndex build(Iterable<FIFARecord> players, int maxK) {
+        NameIndex index = new NameIndex(maxK);
+        List<TrieNode> path = new ArrayList<>();
+        for (FIFARecord r : players) {
+            for (String key : keys(r)) {
+                path.clear();
+                index.addKey(key, path).addHere(r);
+            }
+            index.size++;
+        }
+        index.fillTops(index.root);
+        return index;
+    }
+
+    public void insert(FIFARecord r) {
+        List<TrieNode> path = new ArrayList<>();
+        for (String key : keys(r)) {
+            path.clear();
+            addKey(key, path).addHere(r);
+            for (TrieNode n : path) offer(n, r);
+        }
+        size++;
+    }
+
+    // r must be the same object that was inserted; returns false if it wasn't indexed
+    public boolean remove(FIFARecord r) {
+        boolean found = false;
+        List<TrieNode> path = new ArrayList<>();
+        for (String key : keys(r)) {
+            path.clear();
+            TrieNode end = findKey(key, path);
+            if (end == null || !end.removeHere(r)) continue;
+            found = true;
+            // bottom-up: drop nodes left empty, then rebuild the lists that held r
+            for (int i = path.size() - 1; i > 0; i--) {
+                TrieNode n = path.get(i), parent = path.get(i - 1);
+                if (n.hereCount == 0 && n.kidCount == 0) {
+                    parent.removeChild(parent.child(n.label.charAt(0)));
+                } else if (n.hereCount == 0 && n.kidCount == 1) {
+                    // a pass-through node - fold it into its only child to keep the trie compact
+                    TrieNode only = n.kids[0];
+                    only.label = n.label + only.label;
+                    parent.kids[parent.child(n.label.charAt(0))] = only;
+                } else if (n.inTop(r)) {
+                    fillTop(n);
+                }
+            }
+            if (root.inTop(r)) fillTop(root);
+        }
+        if (found) size--;
+        return found;
+    }
+
+    // up to k players (k <= maxK) whose name, full name or slug starts with prefix, best rated first
+    public List<FIFARecord> complete(String prefix, int k) {
+        if (k > maxK) throw new IllegalArgumentException("k is larger than maxK (" + maxK + ")");
+        String p = prefix.toLowerCase(Locale.ROOT);
+        TrieNode n = root;
+        int i = 0;
+        while (i < p.length()) {
+            int c = n.child(p.charAt(i));
+            if (c < 0) return List.of();
+            TrieNode kid = n.kids[c];
+            int m = Math.min(kid.label.length(), p.length() - i);
+            if (!p.regionMatches(i, kid.label, 0, m)) return List.of();
+            n = kid;
+            i += m;
+        }
+        return List.of(Arrays.copyOf(n.top, Math.min(k, n.topCount)));
+    }
+
+    // players indexed
+    public int size() {
+        return size;
+    }
+
+    private static List<String> keys(FIFARecord r) {
+        List<String> keys = new ArrayList<>(3);
+        for (String s : new String[] {r.getName(), r.getFullName(), r.getPlayerSlug()}) {
+            if (s == null || s.isEmpty()) continue;
+            String k = s.toLowerCase(Locale.ROOT);
+            if (!keys.contains(k)) keys.add(k);
+        }
+        return keys;
+    }
+
+    // walks (and extends) the trie along key; path gets every node from the root to the end
+    private TrieNode addKey(String key, List<TrieNode> path) {
+        TrieNode n = root;
+        path.add(n);
+        int i = 0;
+        while (i < key.length()) {
+            int c = n.child(key.charAt(i));
+            if (c < 0) {
+                TrieNode leaf = new TrieNode(key.substring(i));
+                n.addChild(leaf);
+                path.add(leaf);
+                return leaf;
+            }
+            TrieNode kid = n.kids[c];
+            String label = kid.label;
+            int j = 1;
+            while (j < label.length() && i + j < key.length() && label.charAt(j) == key.charAt(i + j)) j++;
+            if (j < label.length()) {
+                // key leaves the edge part way - split it; the new node covers the same subtree
+                TrieNode mid = new TrieNode(label.substring(0, j));
+                kid.label = label.substring(j);
+                mid.addChild(kid);
+                mid.top = Arrays.copyOf(kid.top, kid.topCount);
+                mid.topCount = kid.topCount;
+                n.kids[c] = mid;
+                kid = mid;
+            }
+            n = kid;
+            path.add(n);
+            i += j;
+        }
+        return n;
+    }
+
+    // the node where key ends, with the path to it; null if key isn't in the trie
+    private TrieNode findKey(String key, List<TrieNode> path) {
+        TrieNode n = root;
+        path.add(n);
+        int i = 0;
+        while (i < key.length()) {
+            int c = n.child(key.charAt(i));
+            if (c < 0) return null;
+            TrieNode kid = n.kids[c];
+            if (!key.startsWith(kid.label, i)) return null;
+            n = kid;
+            path.add(n);
+            i += kid.label.length();
+        }
+        return n;
+    }
+
+    // puts r into n's list if it ranks in the top maxK
+    private void offer(TrieNode n, FIFARecord r) {
+        if (n.inTop(r)) return;
+        int at = n.topCount;
+        while (at > 0 && r.compareTo(n.top[at - 1]) < 0) at--;
+        if (at >= maxK) return;
+        if (n.topCount == n.top.length) n.top = Arrays.copyOf(n.top, Math.min(maxK, Math.max(1, n.topCount * 2)));
+        int keep = Math.min(n.topCount, maxK - 1);   // the last one falls off when full
+        System.arraycopy(n.top, at, n.top, at + 1, keep - at);
+        n.top[at] = r;
+        n.topCount = keep + 1;
+    }
+
+    // post-order over the whole trie (depth is bounded by the longest key)
+    private void fillTops(TrieNode n) {
+        for (int i = 0; i < n.kidCount; i++) fillTops(n.kids[i]);
+        fillTop(n);
+    }
+
+    // n's list from its own players and its children's lists - distinct, best first
+    private void fillTop(TrieNode n) {
+        int total = n.hereCount;
+        for (int i = 0; i < n.kidCount; i++) total += n.kids[i].topCount;
+        FIFARecord[] all = Arrays.copyOf(n.here, total);
+        int at = n.hereCount;
+        for (int i = 0; i < n.kidCount; i++) {
+            System.arraycopy(n.kids[i].top, 0, all, at, n.kids[i].topCount);
+            at += n.kids[i].topCount;
+        }
+        Arrays.sort(all);
+        FIFARecord[] top = new FIFARecord[Math.min(maxK, total)];
+        int count = 0;
+        for (int i = 0; i < total && count < top.length; i++) {
+            if (i > 0 && all[i] == all[i - 1]) continue;   // same player under two keys
+            top[count++] = all[i];
+        }
+        n.top = top;
+        n.topCount = count;
+    }
+}
@@ -10,6 +10,7 @@ public class Node<T extends Comparable<? super T>> implements Comparable<Node<T>
     T value;
     Node<T> left;
     Node<T> right;
+    int slot = -1;  // position in a NodeArena, -1 if not pooled
 
     // Implement the constructor
     public Node(T value) {
@@ -21,6 +22,11 @@ public class Node<T extends Comparable<? super T>> implements Comparable<Node<T>
         this.right = null;
     }
 
+    // empty node for a NodeArena slot - the tree sets the value before linking it in
+    Node(int slot) {
+        this.slot = slot;
+    }
+
     // Implement the setElement method
     public void setValue(T value) {
         this.value = value;
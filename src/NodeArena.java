@@ -0,0 +1,57 @@
+/*∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*
+  @file: NodeArena.java
+  @description: Slab of reusable tree nodes with an index-based free list, so churn
+                (remove then insert) recycles nodes instead of allocating new ones.
+  @author: Calvin Malaney
+  @date: October 19, 2026
+∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*/
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+// Every node knows its slot in the slab. allocate() takes a slot from the free list,
+// or bumps the high-water mark; release(node) pushes the slot back. reset() forgets
+// every slot at once (O(1)) so the tree can be cleared without touching its nodes.
+// Node objects are created once, on first use of their slot, and then live as long as the arena.
+// Released nodes keep their last value until they are handed out again.
+final class NodeArena<N> {
+    private final IntFunction<N> factory;   // creates the node for a given slot
+    private Object[] slab;
+    private int top;                        // slots [0, top) have been handed out at least once
+    private int[] free = new int[16];
+    private int freeCount;
+
+    NodeArena(IntFunction<N> factory, int initialCapacity) {
+        this.factory = factory;
+        this.slab = new Object[Math.max(16, initialCapacity)];
+    }
+
+    // a node from the free list, or the next fresh slot
+    @SuppressWarnings("unchecked")
+    N allocate() {
+        if (freeCount > 0) return (N) slab[free[--freeCount]];
+        if (top == slab.length) slab = Arrays.copyOf(slab, slab.length << 1);
+        N n = (N) slab[top];
+        if (n == null) slab[top] = n = factory.apply(top);
+        top++;
+        return n;
+    }
+
+    // gives the node's slot back; ignores nodes that didn't come from this arena
+    void release(N node, int slot) {
+        if (slot < 0 || slot >= top || slab[slot] != node) return;
+        if (freeCount == free.length) free = Arrays.copyOf(free, free.length << 1);
+        free[freeCount++] = slot;
+    }
+
+    // forget every allocation at once
+    void reset() {
+        top = 0;
+        freeCount = 0;
+    }
+
+    // number of nodes currently handed out
+    int inUse() {
+        return top - freeCount;
+    }
+}
@@ -0,0 +1,600 @@
+/*∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*
+  @file: OffHeapAvlTree.java
+  @description: AVL tree of FIFARecords stored entirely in off-heap MemorySegments
+                (Foreign Memory API), optionally backed by memory-mapped files.
+                There are no Java objects per entry, so GC work does not grow with the tree.
+  @author: Calvin Malaney
+  @date: October 19, 2026
+∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*/
+
+// CONSTRUCTION: in memory, or open( path ) for a memory-mapped tree
+//
+// ******************PUBLIC OPERATIONS*********************
+// void insert( x )       --> Insert x (duplicates are ignored)
+// boolean remove( x )    --> Remove x, return true if it was present
+// boolean contains( x )  --> Return true if x is present
+// FIFARecord get( x )    --> Return the stored copy of x, or null
+// void forEachInRange( lo, hi, action ) --> Visit lo <= x <= hi in order
+// int size( )            --> Return number of items
+// void clear( )          --> Remove all items
+// void force( )          --> Flush a mapped tree to its files
+// void close( )          --> Release the memory (and write the header)
+// ******************ERRORS********************************
+// IllegalStateException if the tree is used after close
+//
+// Needs JDK 22+ (the java.lang.foreign API is final there; JDK 21 needs --enable-preview)
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Off-heap AVL tree. Nodes are fixed 32-byte slots in one segment and
+ * are addressed by index, with -1 meaning null. Record payloads are
+ * appended to a second segment; once the payloads of removed records
+ * outweigh the live ones, the live payloads are packed to the front again,
+ * so update churn doesn't grow the data segment (or its file) without bound.
+ * Comparisons read the key fields straight out of the payload, so a search
+ * allocates nothing. Only get and forEachInRange build FIFARecord objects,
+ * for the caller. Ordering matches FIFARecord.compareTo.
+ */
+public class OffHeapAvlTree implements AutoCloseable {
+
+    // node slot layout
+    private static final int NODE_BYTES = 32;
+    private static final int LEFT = 0;          // int  left child index
+    private static final int RIGHT = 4;         // int  right child index (free list link when free)
+    private static final int HEIGHT = 8;        // int  height
+    private static final int OVERALL = 12;      // int  overall rating (first key, kept inline)
+    private static final int PAYLOAD = 16;      // long payload offset
+
+    // dead payload bytes below this are never worth a compaction
+    private static final long MIN_COMPACT_BYTES = 64 * 1024;
+
+    // header at the start of the node segment (persisted for mapped trees)
+    private static final int HEADER_BYTES = 64;
+    private static final long MAGIC = 0x4649464141564C31L;   // "FIFAAVL1"
+
+    private static final int NIL = -1;
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED;
+    private static final ValueLayout.OfChar CHAR = ValueLayout.JAVA_CHAR_UNALIGNED;
+
+    private final Region nodes;
+    private final Region data;
+    private int root = NIL;
+    private int nodeTop;            // node slots handed out so far
+    private int freeHead = NIL;     // removed node slots, linked through RIGHT
+    private int size;
+    private long dataTop;           // payload bytes appended so far
+    private long deadBytes;         // payload bytes of removed records
+
+    /**
+     * Construct an empty tree in anonymous off-heap memory.
+     */
+    public OffHeapAvlTree( ) {
+        nodes = new Region( null, HEADER_BYTES + 1024L * NODE_BYTES );
+        data = new Region( null, 64 * 1024 );
+    }
+
+    private OffHeapAvlTree( FileChannel nodeFile, FileChannel dataFile ) throws IOException {
+        boolean existing = nodeFile.size( ) >= HEADER_BYTES;
+        nodes = new Region( nodeFile, Math.max( nodeFile.size( ), HEADER_BYTES + 1024L * NODE_BYTES ) );
+        data = new Region( dataFile, Math.max( dataFile.size( ), 64 * 1024 ) );
+        if (existing) readHeader( );
+    }
+
+    /**
+     * Open (or create) a tree backed by memory-mapped files path.nodes and path.data.
+     * @param path base path of the two files.
+     * @return the tree, with any previously written contents.
+     */
+    public static OffHeapAvlTree open( Path path ) throws IOException {
+        FileChannel nodeFile = FileChannel.open( Path.of( path + ".nodes" ),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE );
+        FileChannel dataFile = FileChannel.open( Path.of( path + ".data" ),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE );
+        return new OffHeapAvlTree( nodeFile, dataFile );
+    }
+
+    // ---------------------------------------------------------------- public operations
+
+    /**
+     * Insert into the tree; duplicates are ignored.
+     * @param x the item to insert.
+     */
+    public void insert( FIFARecord x ) {
+        root = insert( x, root );
+    }
+
+    /**
+     * Remove from the tree. Nothing is done if x is not found.
+     * @param x the item to remove.
+     * @return true if x was present.
+     */
+    public boolean remove( FIFARecord x ) {
+        int before = size;
+        root = remove( x, root );
+        if (deadBytes > MIN_COMPACT_BYTES && deadBytes > dataTop - deadBytes) compactPayloads( );
+        return size < before;
+    }
+
+    /**
+     * Find an item in the tree.
+     * @param x the item to search for.
+     * @return true if x is found.
+     */
+    public boolean contains( FIFARecord x ) {
+        return find( x ) != NIL;
+    }
+
+    /**
+     * Find an item in the tree and decode the stored copy.
+     * @param x the item to search for.
+     * @return the stored record, or null if x is not present.
+     */
+    public FIFARecord get( FIFARecord x ) {
+        int t = find( x );
+        return t == NIL ? null : decode( t );
+    }
+
+    /**
+     * Visit every item between lo and hi (inclusive) in sorted order.
+     * @param lo the lower bound.
+     * @param hi the upper bound.
+     * @param action called with each decoded record.
+     */
+    public void forEachInRange( FIFARecord lo, FIFARecord hi, Consumer<? super FIFARecord> action ) {
+        int[] stack = new int[64];   // AVL height stays well under 64
+        int depth = 0;
+        int t = root;
+        while (t != NIL || depth > 0) {
+            while (t != NIL) {
+                if (compare( lo, t ) <= 0) {
+                    stack[depth++] = t;
+                    t = left( t );
+                } else {
+                    t = right( t );   // everything on the left is below lo
+                }
+            }
+            if (depth == 0) break;
+            t = stack[--depth];
+            if (compare( hi, t ) < 0) return;   // past hi - done
+            action.accept( decode( t ) );
+            t = right( t );
+        }
+    }
+
+    /**
+     * Return the number of items in the tree.
+     */
+    public int size( ) {
+        return size;
+    }
+
+    /**
+     * Test if the tree is logically empty.
+     */
+    public boolean isEmpty( ) {
+        return size == 0;
+    }
+
+    /**
+     * Return how many payload bytes belong to removed records (reclaimed by
+     * clear, or by a compaction once they outweigh the live payloads).
+     */
+    public long deadPayloadBytes( ) {
+        return deadBytes;
+    }
+
+    /**
+     * Make the tree logically empty. The memory is kept for reuse.
+     */
+    public void clear( ) {
+        root = NIL;
+        nodeTop = 0;
+        freeHead = NIL;
+        size = 0;
+        dataTop = 0;
+        deadBytes = 0;
+    }
+
+    /**
+     * Write the header and flush a mapped tree to its files. No-op in memory.
+     */
+    public void force( ) {
+        writeHeader( );
+        nodes.force( );
+        data.force( );
+    }
+
+    /**
+     * Release the off-heap memory; a mapped tree is flushed first.
+     */
+    @Override
+    public void close( ) {
+        force( );
+        nodes.close( );
+        data.close( );
+    }
+
+    // ---------------------------------------------------------------- AVL internals
+
+    private int insert( FIFARecord x, int t ) {
+        if (t == NIL) return newNode( x );
+        int compare = compare( x, t );
+        if (compare < 0) setLeft( t, insert( x, left( t ) ) );
+        else if (compare > 0) setRight( t, insert( x, right( t ) ) );
+        else return t;   // duplicate - ignore it
+        return balance( t );
+    }
+
+    private int remove( FIFARecord x, int t ) {
+        if (t == NIL) return NIL;
+        int compare = compare( x, t );
+        if (compare < 0) {
+            setLeft( t, remove( x, left( t ) ) );
+        } else if (compare > 0) {
+            setRight( t, remove( x, right( t ) ) );
+        } else {
+            size--;
+            deadBytes += payloadBytes( t );
+            if (left( t ) != NIL && right( t ) != NIL) {
+                // take over the smallest record of the right subtree
+                int min = right( t );
+                while (left( min ) != NIL) min = left( min );
+                seg( ).set( INT, off( t ) + OVERALL, seg( ).get( INT, off( min ) + OVERALL ) );
+                seg( ).set( ValueLayout.JAVA_LONG, off( t ) + PAYLOAD, seg( ).get( ValueLayout.JAVA_LONG, off( min ) + PAYLOAD ) );
+                setRight( t, removeMin( right( t ) ) );
+                freeNode( min );
+            } else {
+                int gone = t;
+                t = left( t ) != NIL ? left( t ) : right( t );
+                freeNode( gone );
+            }
+        }
+        return balance( t );
+    }
+
+    private int removeMin( int t ) {
+        if (left( t ) == NIL) return right( t );
+        setLeft( t, removeMin( left( t ) ) );
+        return balance( t );
+    }
+
+    private int find( FIFARecord x ) {
+        int t = root;
+        while (t != NIL) {
+            int compare = compare( x, t );
+            if (compare == 0) return t;
+            t = compare < 0 ? left( t ) : right( t );
+        }
+        return NIL;
+    }
+
+    private int balance( int t ) {
+        if (t == NIL) return NIL;
+        if (height( left( t ) ) - height( right( t ) ) > 1) {
+            if (height( left( left( t ) ) ) >= height( right( left( t ) ) )) t = rotateWithLeftChild( t );
+            else {
+                setLeft( t, rotateWithRightChild( left( t ) ) );
+                t = rotateWithLeftChild( t );
+            }
+        } else if (height( right( t ) ) - height( left( t ) ) > 1) {
+            if (height( right( right( t ) ) ) >= height( left( right( t ) ) )) t = rotateWithRightChild( t );
+            else {
+                setRight( t, rotateWithLeftChild( right( t ) ) );
+                t = rotateWithRightChild( t );
+            }
+        } else {
+            updateHeight( t );
+        }
+        return t;
+    }
+
+    private int rotateWithLeftChild( int k2 ) {
+        int k1 = left( k2 );
+        setLeft( k2, right( k1 ) );
+        setRight( k1, k2 );
+        updateHeight( k2 );
+        updateHeight( k1 );
+        return k1;
+    }
+
+    private int rotateWithRightChild( int k1 ) {
+        int k2 = right( k1 );
+        setRight( k1, left( k2 ) );
+        setLeft( k2, k1 );
+        updateHeight( k1 );
+        updateHeight( k2 );
+        return k2;
+    }
+
+    private void updateHeight( int t ) {
+        seg( ).set( INT, off( t ) + HEIGHT, Math.max( height( left( t ) ), height( right( t ) ) ) + 1 );
+    }
+
+    // ---------------------------------------------------------------- node slots
+
+    private MemorySegment seg( ) {
+        return nodes.segment( );
+    }
+
+    private static long off( int t ) {
+        return HEADER_BYTES + (long) t * NODE_BYTES;
+    }
+
+    private int left( int t ) {
+        return seg( ).get( INT, off( t ) + LEFT );
+    }
+
+    private int right( int t ) {
+        return seg( ).get( INT, off( t ) + RIGHT );
+    }
+
+    private void setLeft( int t, int child ) {
+        seg( ).set( INT, off( t ) + LEFT, child );
+    }
+
+    private void setRight( int t, int child ) {
+        seg( ).set( INT, off( t ) + RIGHT, child );
+    }
+
+    private int height( int t ) {
+        return t == NIL ? -1 : seg( ).get( INT, off( t ) + HEIGHT );
+    }
+
+    private int newNode( FIFARecord x ) {
+        int t;
+        if (freeHead != NIL) {
+            t = freeHead;
+            freeHead = right( t );
+        } else {
+            nodes.ensure( off( nodeTop + 1 ) );
+            t = nodeTop++;
+        }
+        MemorySegment s = seg( );
+        long o = off( t );
+        s.set( INT, o + LEFT, NIL );
+        s.set( INT, o + RIGHT, NIL );
+        s.set( INT, o + HEIGHT, 0 );
+        s.set( INT, o + OVERALL, x.getOverallRating( ) );
+        s.set( ValueLayout.JAVA_LONG, o + PAYLOAD, appendPayload( x ) );
+        size++;
+        return t;
+    }
+
+    private void freeNode( int t ) {
+        setRight( t, freeHead );
+        freeHead = t;
+    }
+
+    // ---------------------------------------------------------------- payloads
+    // potential (int), then slug, name, fullName, bestPosition as (int length, UTF-16 chars);
+    // a length of -1 stands for a null string
+
+    private long appendPayload( FIFARecord x ) {
+        long need = 4 + stringBytes( x.getPlayerSlug( ) ) + stringBytes( x.getName( ) )
+                + stringBytes( x.getFullName( ) ) + stringBytes( x.getBestPosition( ) );
+        data.ensure( dataTop + need );
+        MemorySegment d = data.segment( );
+        long at = dataTop;
+        d.set( INT, at, x.getPotential( ) );
+        long p = at + 4;
+        p = writeString( d, p, x.getPlayerSlug( ) );
+        p = writeString( d, p, x.getName( ) );
+        p = writeString( d, p, x.getFullName( ) );
+        writeString( d, p, x.getBestPosition( ) );
+        dataTop += need;
+        return at;
+    }
+
+    private static long stringBytes( String s ) {
+        return 4 + (s == null ? 0 : 2L * s.length( ));
+    }
+
+    private static long writeString( MemorySegment d, long p, String s ) {
+        if (s == null) {
+            d.set( INT, p, -1 );
+            return p + 4;
+        }
+        d.set( INT, p, s.length( ) );
+        p += 4;
+        for (int i = 0; i < s.length( ); i++, p += 2) d.set( CHAR, p, s.charAt( i ) );
+        return p;
+    }
+
+    private static String readString( MemorySegment d, long p ) {
+        int len = d.get( INT, p );
+        if (len < 0) return null;
+        char[] chars = new char[len];
+        MemorySegment.copy( d, CHAR, p + 4, chars, 0, len );
+        return new String( chars );
+    }
+
+    // offset just past the string stored at p
+    private static long skipString( MemorySegment d, long p ) {
+        int len = d.get( INT, p );
+        return p + 4 + 2L * Math.max( 0, len );
+    }
+
+    /**
+     * Internal method to pack the live payloads to the front of the data
+     * segment, in tree order, and point the nodes at their new offsets.
+     * They are gathered in a scratch segment first, then copied back, so the
+     * data segment (and its file) keeps its size and new payloads reuse it.
+     */
+    private void compactPayloads( ) {
+        long live = dataTop - deadBytes;
+        try (Arena scratch = Arena.ofConfined( )) {
+            MemorySegment packed = scratch.allocate( Math.max( 1, live ), 8 );
+            MemorySegment d = data.segment( );
+            long top = 0;
+            int[] stack = new int[64];   // AVL height stays well under 64
+            int depth = 0;
+            int t = root;
+            while (t != NIL || depth > 0) {
+                while (t != NIL) {
+                    stack[depth++] = t;
+                    t = left( t );
+                }
+                t = stack[--depth];
+                long at = seg( ).get( ValueLayout.JAVA_LONG, off( t ) + PAYLOAD );
+                long bytes = payloadBytes( t );
+                MemorySegment.copy( d, at, packed, top, bytes );
+                seg( ).set( ValueLayout.JAVA_LONG, off( t ) + PAYLOAD, top );
+                top += bytes;
+                t = right( t );
+            }
+            MemorySegment.copy( packed, 0, d, 0, top );
+            dataTop = top;
+            deadBytes = 0;
+        }
+    }
+
+    private long payloadBytes( int t ) {
+        MemorySegment d = data.segment( );
+        long start = seg( ).get( ValueLayout.JAVA_LONG, off( t ) + PAYLOAD );
+        long p = start + 4;
+        for (int i = 0; i < 4; i++) p = skipString( d, p );
+        return p - start;
+    }
+
+    private FIFARecord decode( int t ) {
+        MemorySegment d = data.segment( );
+        long p = seg( ).get( ValueLayout.JAVA_LONG, off( t ) + PAYLOAD );
+        int potential = d.get( INT, p );
+        p += 4;
+        String slug = readString( d, p );
+        p = skipString( d, p );
+        String name = readString( d, p );
+        p = skipString( d, p );
+        String full = readString( d, p );
+        p = skipString( d, p );
+        String best = readString( d, p );
+        return new FIFARecord( slug, name, best, full, seg( ).get( INT, off( t ) + OVERALL ), potential );
+    }
+
+    // x.compareTo(record at t) without decoding it: overall DESC, then name, then slug, ignoring case
+    private int compare( FIFARecord x, int t ) {
+        int byOverall = Integer.compare( seg( ).get( INT, off( t ) + OVERALL ), x.getOverallRating( ) );
+        if (byOverall != 0) return byOverall;
+        MemorySegment d = data.segment( );
+        long slugAt = seg( ).get( ValueLayout.JAVA_LONG, off( t ) + PAYLOAD ) + 4;
+        long nameAt = skipString( d, slugAt );
+        int byName = compareIgnoreCase( x.getName( ), d, nameAt );
+        if (byName != 0) return byName;
+        return compareIgnoreCase( x.getPlayerSlug( ), d, slugAt );
+    }
+
+    // same rule as String.compareToIgnoreCase, char by char against the stored string
+    private static int compareIgnoreCase( String s, MemorySegment d, long p ) {
+        int len = d.get( INT, p );
+        int n = Math.min( s.length( ), len );
+        p += 4;
+        for (int i = 0; i < n; i++, p += 2) {
+            char c1 = s.charAt( i );
+            char c2 = d.get( CHAR, p );
+            if (c1 == c2) continue;
+            c1 = Character.toUpperCase( c1 );
+            c2 = Character.toUpperCase( c2 );
+            if (c1 == c2) continue;
+            c1 = Character.toLowerCase( c1 );
+            c2 = Character.toLowerCase( c2 );
+            if (c1 != c2) return c1 - c2;
+        }
+        return s.length( ) - len;
+    }
+
+    // ---------------------------------------------------------------- header (mapped trees)
+
+    private void writeHeader( ) {
+        MemorySegment s = seg( );
+        s.set( ValueLayout.JAVA_LONG, 0, MAGIC );
+        s.set( INT, 8, root );
+        s.set( INT, 12, nodeTop );
+        s.set( INT, 16, freeHead );
+        s.set( INT, 20, size );
+        s.set( ValueLayout.JAVA_LONG, 24, dataTop );
+        s.set( ValueLayout.JAVA_LONG, 32, deadBytes );
+    }
+
+    private void readHeader( ) {
+        MemorySegment s = seg( );
+        if (s.get( ValueLayout.JAVA_LONG, 0 ) != MAGIC)
+            throw new IllegalStateException( "not an OffHeapAvlTree file" );
+        root = s.get( INT, 8 );
+        nodeTop = s.get( INT, 12 );
+        freeHead = s.get( INT, 16 );
+        size = s.get( INT, 20 );
+        dataTop = s.get( ValueLayout.JAVA_LONG, 24 );
+        deadBytes = s.get( ValueLayout.JAVA_LONG, 32 );
+    }
+
+    /**
+     * A growable segment: anonymous memory that is copied on growth, or a
+     * file mapping that is remapped (and the file extended) on growth.
+     */
+    private static final class Region {
+        private final FileChannel channel;   // null for anonymous memory
+        private Arena arena;
+        private MemorySegment segment;
+
+        Region( FileChannel channel, long bytes ) {
+            this.channel = channel;
+            this.arena = Arena.ofShared( );
+            this.segment = allocate( arena, bytes );
+        }
+
+        private MemorySegment allocate( Arena a, long bytes ) {
+            if (channel == null) return a.allocate( bytes, 8 );
+            try {
+                return channel.map( FileChannel.MapMode.READ_WRITE, 0, bytes, a );
+            } catch (IOException e) {
+                throw new UncheckedIOException( e );
+            }
+        }
+
+        MemorySegment segment( ) {
+            return segment;
+        }
+
+        // grow (at least doubling) so that [0, bytes) is addressable
+        void ensure( long bytes ) {
+            if (bytes <= segment.byteSize( )) return;
+            long grown = Math.max( bytes, segment.byteSize( ) * 2 );
+            Arena next = Arena.ofShared( );
+            MemorySegment bigger;
+            if (channel == null) {
+                bigger = allocate( next, grown );
+                MemorySegment.copy( segment, 0, bigger, 0, segment.byteSize( ) );
+            } else {
+                segment.force( );
+                bigger = allocate( next, grown );
+            }
+            arena.close( );
+            arena = next;
+            segment = bigger;
+        }
+
+        void force( ) {
+            if (channel != null) segment.force( );
+        }
+
+        void close( ) {
+            arena.close( );
+            if (channel != null) {
+                try {
+                    channel.close( );
+                } catch (IOException e) {
+                    throw new UncheckedIOException( e );
+                }
+            }
+        }
+    }
+}
@@ -10,30 +10,59 @@
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 
-public class Parser {
+public class Parser implements AutoCloseable {
 
     //Create a BST tree of Integer type
     private BST<FIFARecord> mybst = new BST<>();
-    // lookup table
-    private Map<String, FIFARecord> allPlayers = new HashMap<>();
+    // lookup table - slug -> record and the BST node holding it
+    private SlugIndex players = new SlugIndex();
+    // prefix search over names, full names and slugs of every loaded player
+    private NameIndex names = new NameIndex(COMPLETIONS);
+    private static final int COMPLETIONS = 10;
     private static final String CSV_SPLIT = ",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)";
+    // write-ahead log of tree mutations - null when running purely in memory
+    private MutationLog wal;
+    private static final long CHECKPOINT_EVERY = 100_000;   // log records between automatic checkpoints
+    // guards the tree and node handles when commands arrive from several threads (CommandServer)
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // loads the players only - commands come later through execute (see CommandServer)
+    public Parser(String csvPath) throws IOException {
+        this(csvPath, null, null);
+    }
 
     // parser constructor
     public Parser(String csvPath, String commandPath) throws FileNotFoundException, IOException {
-        var rows = Parser.loadCsv(csvPath, Integer.MAX_VALUE);
+        this(csvPath, commandPath, null);
+    }
 
-        // rebuild the lookup map for the command processor
-        allPlayers.clear();
-        for (FIFARecord r : rows) {
-            allPlayers.put(r.getPlayerSlug(), r);
+    // commandPath - may be null to skip the command file
+    // walDir - if not null, mutations are logged there and the tree state found there
+    // (last checkpoint plus log tail) is restored before the command file runs
+    // (replay and process run on this before a subclass could be initialised - nothing subclasses Parser)
+    @SuppressWarnings("this-escape")
+    public Parser(String csvPath, String commandPath, String walDir) throws FileNotFoundException, IOException {
+        // rebuild the lookup index for the command processor - rows go straight in, no list in between
+        players = new SlugIndex();
+        Parser.forEachRecord(csvPath, Integer.MAX_VALUE, players::put);
+        names = NameIndex.build(players, COMPLETIONS);
+        if (walDir != null) {
+            wal = new MutationLog(Paths.get(walDir), 256, 10);
+            int replayed = wal.recover(this::replay);
+            writeToFile("RECOVERED " + replayed + " logged commands, SIZE=" + mybst.size(), "./result.txt");
         }
-        process(new File(commandPath));
+        if (commandPath != null) process(new File(commandPath));
     }
 
     // Implement the process method
@@ -47,6 +76,49 @@ public class Parser {
                 operate_BST(line.split("\\s+"));
             }
         }
+        if (wal != null) wal.flush();
+    }
+
+    // flushes and closes the write-ahead log (if any)
+    @Override
+    public void close() throws IOException {
+        if (wal != null) wal.close();
+    }
+
+    // applies a logged mutation during recovery - same effect as operate_BST, no output, not re-logged
+    private void replay(String[] command) {
+        switch (command[0]) {
+            case "insert" -> {
+                FIFARecord rec = players.get(command[1]);
+                if (rec != null) players.setNode(command[1], mybst.addNode(rec));
+            }
+            case "remove" -> {
+                if (mybst.removeNode(players.node(command[1]))) players.setNode(command[1], null);
+            }
+            case "clear" -> { mybst.clear(); players.clearNodes(); }
+            default -> { } // unknown record - ignore
+        }
+    }
+
+    // appends a mutation to the write-ahead log - before the tree changes
+    private void logMutation(String... command) {
+        if (wal == null) return;
+        try {
+            wal.append(command);
+        } catch (IOException e) {
+            writeToFile("WAL error: " + e.getMessage(), "./result.txt");
+        }
+    }
+
+    // checkpoints when the log gets long - only once the logged mutation is in the tree,
+    // since the checkpoint empties the log and the snapshot must cover every record in it
+    private void checkpointIfDue() {
+        if (wal == null || wal.recordsSinceCheckpoint() < CHECKPOINT_EVERY) return;
+        try {
+            wal.checkpoint(mybst);
+        } catch (IOException e) {
+            writeToFile("WAL error: " + e.getMessage(), "./result.txt");
+        }
     }
 
     /* old CSV loader from proj1
@@ -87,36 +159,90 @@ public class Parser {
 
     // new CSV loader for proj2 - fills a list
     public static List<FIFARecord> loadCsv(String csvPath, int limit) throws IOException {
-        ArrayList<FIFARecord> out = new ArrayList<>(Math.max(16, limit));
+        // grows with the rows actually read - limit is often Integer.MAX_VALUE
+        ArrayList<FIFARecord> out = new ArrayList<>(Math.max(16, Math.min(limit, 1 << 16)));
+        forEachRecord(csvPath, limit, out::add);
+        return out;
+    }
+
+    // streaming CSV loader - parses up to limit records one at a time and hands each to sink,
+    // so callers can fill trees and indexes in one pass without holding the rows in a list.
+    // returns the number of records read
+    public static int forEachRecord(String csvPath, int limit, Consumer<? super FIFARecord> sink) throws IOException {
+        TreeEvents.CsvLoad event = new TreeEvents.CsvLoad();
+        event.begin();
+        int count = 0;
         try (BufferedReader br = Files.newBufferedReader(Paths.get(csvPath), StandardCharsets.UTF_8)) {
-            String header = readCsvRecord(br);            // your existing helper
-            if (header == null) return out;
+            String header = readCsvRecord(br);
+            if (header == null) return 0;
+            Map<String,Integer> idx = headerIndex(header);
 
-            String[] headers = header.split(CSV_SPLIT, -1);
-            Map<String,Integer> idx = new HashMap<>();
-            for (int i = 0; i < headers.length; i++) idx.put(headers[i].trim(), i);
+            String rec;
+            if (event.isEnabled()) {
+                // same loop, timing each phase for the event
+                long t0 = System.nanoTime();
+                while (count < limit && (rec = readCsvRecord(br)) != null) {
+                    long t1 = System.nanoTime();
+                    event.readTime += t1 - t0;
+                    if (rec.isBlank()) {
+                        t0 = t1;
+                        continue;
+                    }
+                    String[] row = rec.split(CSV_SPLIT, -1);
+                    long t2 = System.nanoTime();
+                    FIFARecord r = fromRow(row, idx);
+                    long t3 = System.nanoTime();
+                    sink.accept(r);
+                    t0 = System.nanoTime();
+                    event.tokenizeTime += t2 - t1;
+                    event.constructTime += t3 - t2;
+                    event.consumeTime += t0 - t3;
+                    count++;
+                }
+            } else {
+                while (count < limit && (rec = readCsvRecord(br)) != null) {
+                    if (rec.isBlank()) continue;
+                    sink.accept(parseRecord(rec, idx));
+                    count++;
+                }
+            }
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.file = csvPath;
+            event.records = count;
+            event.commit();
+        }
+        return count;
+    }
 
-            String[] req = {"player_slug","name","full_name","best_position","overall_rating","potential"};
-            for (String r : req) if (!idx.containsKey(r))
-                throw new IllegalArgumentException("Missing header: " + r);
+    // maps column name -> position; fails if a column we need is missing
+    public static Map<String,Integer> headerIndex(String header) {
+        String[] headers = header.split(CSV_SPLIT, -1);
+        Map<String,Integer> idx = new HashMap<>();
+        for (int i = 0; i < headers.length; i++) idx.put(headers[i].trim(), i);
 
-            String rec; int count = 0;
-            while ((rec = readCsvRecord(br)) != null && count < limit) {
-                if (rec.isBlank()) continue;
-                String[] row = rec.split(CSV_SPLIT, -1);
+        String[] req = {"player_slug","name","full_name","best_position","overall_rating","potential"};
+        for (String r : req) if (!idx.containsKey(r))
+            throw new IllegalArgumentException("Missing header: " + r);
+        return idx;
+    }
 
-                String slug   = unquote(row[idx.get("player_slug")]).trim();
-                String name   = unquote(row[idx.get("name")]).trim();
-                String full   = unquote(row[idx.get("full_name")]).trim();
-                String best   = unquote(row[idx.get("best_position")]).trim();
-                int overall   = parseInt(row[idx.get("overall_rating")]);
-                int potential = parseInt(row[idx.get("potential")]);
+    // builds one record from a complete CSV record (may span lines inside quotes)
+    public static FIFARecord parseRecord(String rec, Map<String,Integer> idx) {
+        return fromRow(rec.split(CSV_SPLIT, -1), idx);
+    }
 
-                out.add(new FIFARecord(slug, name, best, full, overall, potential));
-                count++;
-            }
-        }
-        return out;
+    // builds one record from a record's fields
+    private static FIFARecord fromRow(String[] row, Map<String,Integer> idx) {
+        String slug   = unquote(row[idx.get("player_slug")]).trim();
+        String name   = unquote(row[idx.get("name")]).trim();
+        String full   = unquote(row[idx.get("full_name")]).trim();
+        String best   = unquote(row[idx.get("best_position")]).trim();
+        int overall   = parseInt(row[idx.get("overall_rating")]);
+        int potential = parseInt(row[idx.get("potential")]);
+
+        return new FIFARecord(slug, name, best, full, overall, potential);
     }
 
     // CSV helpers
@@ -155,77 +281,158 @@ public class Parser {
 
     // Implement the operate_BST method
     // Determine the incoming command and operate on the BST
+    // applies rows appended to csv after startOffset (e.g. its size when it was loaded) every
+    // periodMillis, under the write lock like any other mutation. Updated players already in
+    // the tree are replaced there; new players only become available to INSERT.
+    // Close the returned tailer to stop following
+    public CsvTailer follow(Path csv, long startOffset, long periodMillis) {
+        CsvTailer tailer = new CsvTailer(csv, players, startOffset).feedBst(mybst, false).feedNames(names);
+        tailer.start(periodMillis, lock.writeLock());
+        return tailer;
+    }
+
     public void operate_BST(String[] command) {
+        String response = execute(command);
+        if (!response.isEmpty()) writeToFile(response, "./result.txt");
+    }
+
+    // runs one command and returns its response - lines separated by '\n', "" if there is nothing to report.
+    // Safe to call from many threads: lookups share the read lock, mutations take the write lock.
+    public String execute(String[] command) {
         if(command == null || command.length == 0) {
-            writeToFile("Invalid command","./result.txt");
-            return;
+            return "Invalid command";
+        }
+        Lock l = switch (command[0]) {
+            case "insert", "remove", "clear", "checkpoint" -> lock.writeLock();
+            default -> lock.readLock();
+        };
+        TreeEvents.Command event = new TreeEvents.Command();
+        event.begin();   // includes waiting for the lock
+        String response;
+        l.lock();
+        try {
+            response = dispatch(command);
+        } finally {
+            l.unlock();
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.command = command[0];
+            event.arguments = command.length - 1;
+            event.responseLength = response.length();
+            event.commit();
         }
+        return response;
+    }
 
+    private String dispatch(String[] command) {
         switch (command[0]) {
             //add by player's slug
             case "insert" -> {
                 if (command.length != 2) {
-                    writeToFile("Usage: INSERT <player_slug>", "./result.txt");
-                    break;
+                    return "Usage: INSERT <player_slug>";
                 }
                 String slug = command[1];
-                FIFARecord rec = allPlayers.get(slug);
+                FIFARecord rec = players.get(slug);
                 if (rec == null) {
-                    writeToFile("No player found with slug: " + slug, "./result.txt");
-                    return;
+                    return "No player found with slug: " + slug;
                 }
-                mybst.add(rec);
-                writeToFile("INSERT: " + rec, "./result.txt");
+                logMutation("insert", slug);
+                players.setNode(slug, mybst.addNode(rec));
+                checkpointIfDue();
+                return "INSERT: " + rec;
             }
 
             case "search" -> {
                 if (command.length != 2) {
-                    writeToFile("Usage: SEARCH <player_slug>", "./result.txt");
-                    break;
+                    return "Usage: SEARCH <player_slug>";
                 }
                 String slug = command[1];
-                FIFARecord target = allPlayers.get(slug);
+                FIFARecord target = players.get(slug);
 
                 if (target == null) {
-                    writeToFile("No player found with slug: " + slug, "./result.txt");
-                } else {
-                    Node<FIFARecord> node = mybst.search(target);
-                    if (node != null) {
-                        writeToFile("FOUND: " + node.getValue(), "./result.txt");
-                    } else {
-                        writeToFile("NOT FOUND in BST: " + slug, "./result.txt");
-                    }
+                    return "No player found with slug: " + slug;
                 }
+                // the index holds the live node handle - no tree walk needed
+                TreeEvents.BstOperation event = new TreeEvents.BstOperation();
+                event.begin();
+                Node<FIFARecord> node = players.node(slug);
+                mybst.recordLookup(event, target, node != null);
+                return node != null ? "FOUND: " + node.getValue() : "NOT FOUND in BST: " + slug;
             }
 
 
             //prints in-order
             case "print" -> {
+                StringBuilder sb = new StringBuilder();
                 for (FIFARecord r : mybst) {
-                    writeToFile(r.toString(), "./result.txt");
+                    if (sb.length() > 0) sb.append('\n');
+                    sb.append(r);
+                }
+                return sb.length() > 0 ? sb.toString() : "EMPTY";   // never a blank response
+            }
+
+            // best-rated players whose name, full name or slug starts with the prefix
+            case "complete" -> {
+                if (command.length < 2) {
+                    return "Usage: COMPLETE <prefix>";
+                }
+                String prefix = String.join(" ", Arrays.copyOfRange(command, 1, command.length));
+                List<FIFARecord> found = names.complete(prefix, COMPLETIONS);
+                if (found.isEmpty()) {
+                    return "No completions for: " + prefix;
                 }
+                StringBuilder sb = new StringBuilder("COMPLETE " + prefix + ":");
+                for (FIFARecord r : found) sb.append('\n').append(r.getPlayerSlug()).append(' ').append(r);
+                return sb.toString();
             }
 
-            case "size" -> writeToFile("SIZE=" + mybst.size(), "./result.txt");
-            case "clear" -> { mybst.clear(); writeToFile("CLEARED", "./result.txt"); }
+            case "size" -> {
+                return "SIZE=" + mybst.size();
+            }
+            case "clear" -> {
+                logMutation("clear");
+                mybst.clear();
+                players.clearNodes();
+                checkpointIfDue();
+                return "CLEARED";
+            }
+
+            // snapshot the tree and empty the write-ahead log
+            case "checkpoint" -> {
+                if (wal == null) {
+                    return "No write-ahead log configured";
+                }
+                try {
+                    wal.checkpoint(mybst);
+                    return "CHECKPOINT: " + mybst.size() + " players";
+                } catch (IOException e) {
+                    return "WAL error: " + e.getMessage();
+                }
+            }
 
             case "remove" -> {
                 if (command.length != 2) {
-                    writeToFile("Usage: REMOVE <player_slug>", "./result.txt");
-                    break;
+                    return "Usage: REMOVE <player_slug>";
                 }
                 String slug = command[1];
-                FIFARecord rec = allPlayers.get(slug);    // exact same object we built
+                FIFARecord rec = players.get(slug);    // exact same object we built
 
                 if (rec == null) {
-                    writeToFile("No player found with slug: " + slug, "./result.txt");
-                } else {
-                    var removed = mybst.remove(rec);
-                    writeToFile(removed != null ? "REMOVED: " + rec : "NOT FOUND IN TREE: " + slug, "./result.txt");
+                    return "No player found with slug: " + slug;
                 }
+                // start from the node handle; a missing handle means it's not in the tree
+                Node<FIFARecord> node = players.node(slug);
+                if (node != null) logMutation("remove", slug);
+                boolean removed = mybst.removeNode(node);
+                if (removed) players.setNode(slug, null);
+                checkpointIfDue();
+                return removed ? "REMOVED: " + rec : "NOT FOUND IN TREE: " + slug;
             }
             // default case for Invalid Command
-            default -> writeToFile("Invalid Command", "./result.txt");
+            default -> {
+                return "Invalid Command";
+            }
         }
     }
 
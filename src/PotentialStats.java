@@ -0,0 +1,64 @@
+/*∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*
+  @file: PotentialStats.java
+  @description: Count, sum and max of player potential - the aggregate an AvLTree of
+                FIFARecords keeps for questions like "average potential of players rated 75-80".
+  @author: Calvin Malaney
+  @date: October 19, 2026
+∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*/
+
+public final class PotentialStats {
+    public static final PotentialStats EMPTY = new PotentialStats(0, 0, Integer.MIN_VALUE);
+
+    // pass to AvLTree.setAggregate
+    public static final Aggregate<FIFARecord, PotentialStats> AGGREGATE = new Aggregate<>() {
+        @Override
+        public PotentialStats identity() {
+            return EMPTY;
+        }
+
+        @Override
+        public PotentialStats of(FIFARecord r) {
+            return new PotentialStats(1, r.getPotential(), r.getPotential());
+        }
+
+        @Override
+        public PotentialStats combine(PotentialStats a, PotentialStats b) {
+            if (a.count == 0) return b;
+            if (b.count == 0) return a;
+            return new PotentialStats(a.count + b.count, a.sum + b.sum, Math.max(a.max, b.max));
+        }
+    };
+
+    private final long count;
+    private final long sum;
+    private final int max;
+
+    private PotentialStats(long count, long sum, int max) {
+        this.count = count;
+        this.sum = sum;
+        this.max = max;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public long sum() {
+        return sum;
+    }
+
+    // Integer.MIN_VALUE when there are no players
+    public int max() {
+        return max;
+    }
+
+    // NaN when there are no players
+    public double average() {
+        return count == 0 ? Double.NaN : (double) sum / count;
+    }
+
+    @Override
+    public String toString() {
+        return count == 0 ? "no players" : "count=" + count + " avg=" + String.format("%.2f", average()) + " max=" + max;
+    }
+}
@@ -6,6 +6,9 @@
 ∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*/
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Collections;
@@ -21,23 +24,31 @@ public class Proj2 {
     public static void main(String[] args) throws IOException {
         // Use command line arguments to specify the input file
         if (args.length != 2) {
-            System.err.println("Usage: java TestAvl <input file> <number of lines>");
+            System.err.println("Usage: java TestAvl <input file | synthetic:<seed>> <number of lines>");
             System.exit(1);
         }
 
         String inputFileName = args[0];
         int numLines = Integer.parseInt(args[1]);
 
-        // make sorted and randomized copies
-        List<FIFARecord> original = Parser.loadCsv(inputFileName, numLines);
-
-        // build sorted copy
-        List<FIFARecord> sorted = new ArrayList<>(original);
-        Collections.sort(sorted);
-
-        // build random copy
-        List<FIFARecord> randomized = new ArrayList<>(original);
-        Collections.shuffle(randomized);
+        // synthetic:<seed> - generated records instead of the CSV, for sizes past the export
+        List<FIFARecord> original = new ArrayList<>();
+        Measurement load = TimingUtils.measure(1, () -> {
+            try {
+                if (inputFileName.startsWith("synthetic:")) {
+                    long seed = Long.parseLong(inputFileName.substring("synthetic:".length()));
+                    original.addAll(new FIFAGenerator(seed).list(numLines));
+                } else {
+                    original.addAll(Parser.loadCsv(inputFileName, numLines));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        // one working copy - sorted for the sorted inserts, then shuffled in place for the random ones
+        List<FIFARecord> order = new ArrayList<>(original);
+        Collections.sort(order);
 
         int N = original.size();
 
@@ -47,55 +58,71 @@ public class Proj2 {
         AvLTree<FIFARecord> avlSorted = new AvLTree<>();
         AvLTree<FIFARecord> avlRandom = new AvLTree<>();
 
-        // timing - inserts
-        long bstSortedInsertNs = TimingUtils.timeInsertBST(bstSorted,   sorted);
-        long bstRandomInsertNs = TimingUtils.timeInsertBST(bstRandom,   randomized);
-        long avlSortedInsertNs = TimingUtils.timeInsertAVL(avlSorted,   sorted);
-        long avlRandomInsertNs = TimingUtils.timeInsertAVL(avlRandom,   randomized);
+        // timing - inserts (each phase also records allocation and GC activity)
+        Measurement bstSortedInsert = TimingUtils.measure(N, () -> TimingUtils.timeInsertBST(bstSorted, order));
+        Measurement avlSortedInsert = TimingUtils.measure(N, () -> TimingUtils.timeInsertAVL(avlSorted, order));
+        Collections.shuffle(order);
+        Measurement bstRandomInsert = TimingUtils.measure(N, () -> TimingUtils.timeInsertBST(bstRandom, order));
+        Measurement avlRandomInsert = TimingUtils.measure(N, () -> TimingUtils.timeInsertAVL(avlRandom, order));
+
+        // timing - batch insert of the shuffled list (parallel sort + build, so every thread's allocation counts)
+        AvLTree<FIFARecord> avlBatch = new AvLTree<>();
+        Measurement avlBatchInsert = TimingUtils.measureAllThreads(N, () -> TimingUtils.timeInsertAllAVL(avlBatch, order));
 
         // timing - search (using original order)
-        long bstSortedSearchNs = TimingUtils.timeSearchBST(bstSorted,   original);
-        long bstRandomSearchNs = TimingUtils.timeSearchBST(bstRandom,   original);
-        long avlSortedSearchNs = TimingUtils.timeSearchAVL(avlSorted,   original);
-        long avlRandomSearchNs = TimingUtils.timeSearchAVL(avlRandom,   original);
+        Measurement bstSortedSearch = TimingUtils.measure(N, () -> TimingUtils.timeSearchBST(bstSorted, original));
+        Measurement bstRandomSearch = TimingUtils.measure(N, () -> TimingUtils.timeSearchBST(bstRandom, original));
+        Measurement avlSortedSearch = TimingUtils.measure(N, () -> TimingUtils.timeSearchAVL(avlSorted, original));
+        Measurement avlRandomSearch = TimingUtils.measure(N, () -> TimingUtils.timeSearchAVL(avlRandom, original));
+
+        // timing - search on a frozen read-only snapshot of the random AVL tree
+        FrozenIndex<FIFARecord> frozen = avlRandom.freeze();
+        Measurement frozenSearch = TimingUtils.measure(N, () -> TimingUtils.timeSearchFrozen(frozen, original));
 
         // print
         System.out.println();
         System.out.println("=== Timing Results ===");
         System.out.printf("Lines: %,d%n", N);
-        System.out.printf("BST  (sorted)   insert: %8.3f ms   search: %8.3f ms%n",
-                TimingUtils.nsToMs(bstSortedInsertNs), TimingUtils.nsToMs(bstSortedSearchNs));
-        System.out.printf("BST  (random)   insert: %8.3f ms   search: %8.3f ms%n",
-                TimingUtils.nsToMs(bstRandomInsertNs), TimingUtils.nsToMs(bstRandomSearchNs));
-        System.out.printf("AVL  (sorted)   insert: %8.3f ms   search: %8.3f ms%n",
-                TimingUtils.nsToMs(avlSortedInsertNs), TimingUtils.nsToMs(avlSortedSearchNs));
-        System.out.printf("AVL  (random)   insert: %8.3f ms   search: %8.3f ms%n",
-                TimingUtils.nsToMs(avlRandomInsertNs), TimingUtils.nsToMs(avlRandomSearchNs));
-
-        // csv with the 4 series
+        System.out.printf(Locale.US, "Load   %8.3f ms %9.1f B/record  GC %3d x %5d ms%n",
+                TimingUtils.nsToMs(load.nanos()), (double) load.allocatedBytes() / Math.max(1, N), load.gcCount(), load.gcMillis());
+        System.out.printf("BST  (sorted)   insert: %s   search: %s%n", bstSortedInsert, bstSortedSearch);
+        System.out.printf("BST  (random)   insert: %s   search: %s%n", bstRandomInsert, bstRandomSearch);
+        System.out.printf("AVL  (sorted)   insert: %s   search: %s%n", avlSortedInsert, avlSortedSearch);
+        System.out.printf("AVL  (random)   insert: %s   search: %s%n", avlRandomInsert, avlRandomSearch);
+        System.out.printf("AVL  (batch)    insert: %s%n", avlBatchInsert);
+        System.out.printf("Frozen (Eytzinger)                                                search: %s%n", frozenSearch);
+
+        // csv with the 4 series - seconds, seconds per node, bytes per node and GC ms for each
         String header = String.join(",",
                 "dataset","lines","run_at",
                 "bst_sorted_insert_s","avl_sorted_insert_s",
                 "bst_sorted_search_s","avl_sorted_search_s",
                 "bst_sorted_insert_spn","avl_sorted_insert_spn",
-                "bst_sorted_search_spn","avl_sorted_search_spn"
+                "bst_sorted_search_spn","avl_sorted_search_spn",
+                "bst_sorted_insert_bpn","avl_sorted_insert_bpn",
+                "bst_sorted_search_bpn","avl_sorted_search_bpn",
+                "bst_sorted_insert_gc_ms","avl_sorted_insert_gc_ms",
+                "bst_sorted_search_gc_ms","avl_sorted_search_gc_ms",
+                "load_s","load_bytes","load_gc_ms"
         );
 
-        String row = String.join(",",
-                String.valueOf(N),
-                // seconds
-                fmt(TimingUtils.nsToSec(bstSortedInsertNs)),
-                fmt(TimingUtils.nsToSec(avlSortedInsertNs)),
-                fmt(TimingUtils.nsToSec(bstSortedSearchNs)),
-                fmt(TimingUtils.nsToSec(avlSortedSearchNs)),
-                // seconds per node
-                fmt(TimingUtils.ratePerNode(bstSortedInsertNs, N)),
-                fmt(TimingUtils.ratePerNode(avlSortedInsertNs, N)),
-                fmt(TimingUtils.ratePerNode(bstSortedSearchNs, N)),
-                fmt(TimingUtils.ratePerNode(avlSortedSearchNs, N))
-        );
-
-        TimingUtils.appendCsv("output.txt", header, row);
+        Measurement[] series = {bstSortedInsert, avlSortedInsert, bstSortedSearch, avlSortedSearch};
+        List<String> row = new ArrayList<>();
+        row.add(inputFileName.replace(",", "_"));
+        row.add(String.valueOf(N));
+        row.add(Instant.now().truncatedTo(ChronoUnit.SECONDS).toString());
+        // seconds
+        for (Measurement m : series) row.add(fmt(TimingUtils.nsToSec(m.nanos())));
+        // seconds per node
+        for (Measurement m : series) row.add(fmt(TimingUtils.ratePerNode(m.nanos(), N)));
+        // bytes allocated per node
+        for (Measurement m : series) row.add(String.format(Locale.US, "%.1f", m.bytesPerOp()));
+        // GC time during the phase
+        for (Measurement m : series) row.add(String.valueOf(m.gcMillis()));
+        row.add(fmt(TimingUtils.nsToSec(load.nanos())));
+        row.add(String.valueOf(load.allocatedBytes()));
+        row.add(String.valueOf(load.gcMillis()));
+
+        TimingUtils.appendCsv("output.txt", header, String.join(",", row));
     }
 }
-
@@ -0,0 +1,135 @@
+/*∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*
+  @file: SeasonMerger.java
+  @description: Combines several season/patch CSVs into one sorted, deduplicated run of
+                FIFARecords - files are parsed and sorted in parallel, then k-way merged,
+                and the result is built into a balanced tree in linear time.
+  @author: Calvin Malaney
+  @date: October 19, 2026
+∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*/
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+// Files are given oldest first. A player in several files keeps only the record from the
+// latest file (and the last row for it within that file) - even when its rating, and so
+// its place in the order, changed between seasons. A player is its slug ignoring case, the
+// same identity FIFARecord's compareTo and hashCode use.
+//
+// 1. parse: one task per file on the common pool
+// 2. winners: every record goes into a map by slug in file order, so the map ends up
+//    holding the latest record for each player
+// 3. runs: each file drops the records that lost and sorts the rest (in parallel again),
+//    so superseded seasons cost a hash lookup instead of a place in a sort. A file's
+//    parsed rows are let go as soon as its run is built.
+// 4. merge: a heap of run cursors yields the records in order
+//
+// Deduplication is not done in the merge itself: the order is by rating, so the copies of
+// a player whose rating changed are far apart in the merged stream and only a pass over
+// every file can say which one is the latest. That pass needs every file in memory at
+// once - all parsed rows plus the winners map, then the runs - so this is not an
+// external merge for files larger than the heap. Each run entry is dropped once it has
+// been handed on. Parsing is not the whole cost either: on 4 files of the same 260k
+// players, parsing was a bit over half the time and building the per-file lists and
+// runs most of the rest.
+public class SeasonMerger {
+
+    private SeasonMerger() {}   // static helpers only
+
+    // merged, deduplicated records of all files in sorted order, handed to sink one at a time.
+    // returns the number of records passed on
+    public static int merge(List<String> csvPaths, Consumer<? super FIFARecord> sink) throws IOException {
+        List<List<FIFARecord>> runs = sortedRuns(parseAll(csvPaths));
+
+        // winners are distinct players, so no two heads ever compare equal
+        PriorityQueue<Cursor> heap = new PriorityQueue<>(Math.max(1, runs.size()),
+                (a, b) -> a.head().compareTo(b.head()));
+        for (List<FIFARecord> run : runs)
+            if (!run.isEmpty()) heap.add(new Cursor(run));
+
+        int count = 0;
+        while (!heap.isEmpty()) {
+            Cursor c = heap.poll();
+            sink.accept(c.head());
+            if (c.advance()) heap.add(c);
+            count++;
+        }
+        return count;
+    }
+
+    // the merged records as a list, ready for fromSorted
+    public static List<FIFARecord> mergeAll(List<String> csvPaths) throws IOException {
+        List<FIFARecord> out = new ArrayList<>();
+        merge(csvPaths, out::add);
+        return out;
+    }
+
+    // one balanced AVL tree over all the files
+    public static AvLTree<FIFARecord> buildAvl(List<String> csvPaths) throws IOException {
+        return AvLTree.fromSorted(mergeAll(csvPaths));
+    }
+
+    // parses every file in parallel; results come back in file order
+    private static List<List<FIFARecord>> parseAll(List<String> csvPaths) throws IOException {
+        try {
+            return new ArrayList<>(csvPaths.parallelStream().map(path -> {
+                try {
+                    return Parser.loadCsv(path, Integer.MAX_VALUE);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // each file's latest-per-player records, sorted. Empties files as it goes
+    private static List<List<FIFARecord>> sortedRuns(List<List<FIFARecord>> files) {
+        int total = 0;
+        for (List<FIFARecord> rows : files) total += rows.size();
+        Map<String, FIFARecord> latest = new HashMap<>(Math.max(16, (int) (total / 0.75f) + 1));
+        for (List<FIFARecord> rows : files) for (FIFARecord r : rows) latest.put(player(r), r);
+
+        // each file keeps only its winners, then sorts them - older copies are never sorted or merged
+        return IntStream.range(0, files.size()).parallel().mapToObj(f -> {
+            List<FIFARecord> rows = files.set(f, null);
+            List<FIFARecord> run = new ArrayList<>(rows.size());
+            for (FIFARecord r : rows) if (latest.get(player(r)) == r) run.add(r);
+            run.sort(null);
+            return run;
+        }).toList();
+    }
+
+    // the slug as compareTo and hashCode see it
+    private static String player(FIFARecord r) {
+        return r.getPlayerSlug().toLowerCase(Locale.ROOT);
+    }
+
+    // read position in one sorted run; entries already read are cleared
+    private static final class Cursor {
+        private final List<FIFARecord> run;
+        private int pos;
+
+        Cursor(List<FIFARecord> run) {
+            this.run = run;
+        }
+
+        FIFARecord head() {
+            return run.get(pos);
+        }
+
+        // drops the head and moves to the next record; false once the run is used up
+        boolean advance() {
+            run.set(pos++, null);
+            return pos < run.size();
+        }
+    }
+}
@@ -0,0 +1,288 @@
+/*∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*
+  @file: ShardedAvlStore.java
+  @description: Ordered store of FIFA players split by rating range into independent AVL
+                shards, each with its own lock, so writers to different ranges don't contend.
+                Shard boundaries move with the observed load: hot shards split at their
+                median, cold neighbours merge.
+  @author: Calvin Malaney
+  @date: October 19, 2026
+∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*/
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+// Shard i holds the records r with lower[i] <= r < lower[i+1] in FIFARecord order
+// (best rating first); lower[0] is open. Boundaries start at rating bands but are full
+// keys, so a hot shard can be split inside a single rating (lots of ties there).
+//
+// Locking: there is no table-wide lock on the write path - a shared lock word would be
+// the very serialization point sharding is meant to remove. An operation reads the
+// current table, locks its shard and checks the shard hasn't been retired by a
+// rebalance in the meantime (if it has, it starts over on the new table). Rebalancing
+// write-locks every shard in order, swaps in the new table and retires the shards it
+// split or merged away. A shard that survives a rebalance keeps its range or (when a
+// neighbour was merged into it) grows it, so a key routed to it by the old table still
+// belongs there. Range queries read-lock every shard they cover, in order, so they see
+// one consistent state of that range.
+//
+// Shards never overlap, so the k-way merge of a range query reduces to visiting the
+// covered shards in boundary order - no heap needed.
+public class ShardedAvlStore {
+    private static final int REBALANCE_EVERY = 1 << 14;   // writes to one shard that trigger a rebalance
+    private static final int MIN_SPLIT = 1024;             // smaller shards are never split
+
+    private static final class Shard {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        AvLTree<FIFARecord> tree;
+        long writes;    // since the last rebalance - the observed load
+        boolean retired;    // split or merged away - its records now live in other shards
+
+        Shard(AvLTree<FIFARecord> tree) {
+            this.tree = tree;
+        }
+    }
+
+    // immutable; replaced as a whole when boundaries move
+    private static final class Table {
+        final FIFARecord[] lower;   // lower[0] unused
+        final Shard[] shards;
+
+        Table(FIFARecord[] lower, Shard[] shards) {
+            this.lower = lower;
+            this.shards = shards;
+        }
+
+        // index of the shard whose range holds x
+        int locate(FIFARecord x) {
+            int lo = 1, hi = shards.length - 1, found = 0;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (lower[mid].compareTo(x) <= 0) {
+                    found = mid;
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            return found;
+        }
+    }
+
+    private volatile Table table;
+    private final ReentrantLock rebalanceLock = new ReentrantLock();
+    private final int maxShardSize;
+    private final int maxShards;
+    private final LongAdder size = new LongAdder();    // not an AtomicLong - writers would contend on it
+
+    // eight rating bands over [40, 99], up to 64 shards of at most 1<<16 records
+    public ShardedAvlStore() {
+        this(40, 99, 8, 1 << 16, 64);
+    }
+
+    // shards - initial equal-width bands over [minRating, maxRating]
+    // maxShardSize - a shard past this size is split whatever its load
+    // maxShards - splitting stops here
+    public ShardedAvlStore(int minRating, int maxRating, int shards, int maxShardSize, int maxShards) {
+        if (shards < 1 || maxRating < minRating || maxShardSize < 2 * MIN_SPLIT || maxShards < shards)
+            throw new IllegalArgumentException("bad shard layout");
+        shards = Math.min(shards, maxRating - minRating + 1);
+        FIFARecord[] lower = new FIFARecord[shards];
+        Shard[] s = new Shard[shards];
+        int span = maxRating - minRating + 1;
+        for (int i = 0; i < shards; i++) {
+            // shard 0 has the best ratings; shard i starts below the band of shard i-1
+            if (i > 0) lower[i] = FIFARecord.ratingProbe(maxRating - (int) ((long) span * i / shards));
+            s[i] = new Shard(new AvLTree<>());
+        }
+        this.table = new Table(lower, s);
+        this.maxShardSize = maxShardSize;
+        this.maxShards = maxShards;
+    }
+
+    // adds r; returns false if an equal record was already present
+    public boolean insert(FIFARecord r) {
+        boolean added;
+        boolean rebalanceDue;
+        while (true) {
+            Table t = table;
+            Shard s = t.shards[t.locate(r)];
+            s.lock.writeLock().lock();
+            try {
+                if (s.retired) continue;    // boundaries moved while we waited - route again
+                int before = s.tree.size();
+                s.tree.insert(r);
+                added = s.tree.size() != before;
+                rebalanceDue = ++s.writes % REBALANCE_EVERY == 0;
+                break;
+            } finally {
+                s.lock.writeLock().unlock();
+            }
+        }
+        if (added) size.increment();
+        if (rebalanceDue) tryRebalance();
+        return added;
+    }
+
+    // removes r; returns false if it wasn't present
+    public boolean remove(FIFARecord r) {
+        boolean removed;
+        boolean rebalanceDue;
+        while (true) {
+            Table t = table;
+            Shard s = t.shards[t.locate(r)];
+            s.lock.writeLock().lock();
+            try {
+                if (s.retired) continue;
+                removed = s.tree.contains(r);
+                if (removed) s.tree.remove(r);
+                rebalanceDue = ++s.writes % REBALANCE_EVERY == 0;
+                break;
+            } finally {
+                s.lock.writeLock().unlock();
+            }
+        }
+        if (removed) size.decrement();
+        if (rebalanceDue) tryRebalance();
+        return removed;
+    }
+
+    public boolean contains(FIFARecord r) {
+        while (true) {
+            Table t = table;
+            Shard s = t.shards[t.locate(r)];
+            s.lock.readLock().lock();
+            try {
+                if (!s.retired) return s.tree.contains(r);
+            } finally {
+                s.lock.readLock().unlock();
+            }
+        }
+    }
+
+    public long size() {
+        return size.sum();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // visits every record between lo and hi (inclusive) in order
+    public void forEachInRange(FIFARecord lo, FIFARecord hi, Consumer<? super FIFARecord> action) {
+        if (lo.compareTo(hi) > 0) return;
+        while (true) {
+            Table t = table;
+            int first = t.locate(lo), last = t.locate(hi);
+            for (int i = first; i <= last; i++) t.shards[i].lock.readLock().lock();
+            try {
+                if (table != t) continue;    // rebalanced while we were locking
+                for (int i = first; i <= last; i++) t.shards[i].tree.forEachInRange(lo, hi, action);
+                return;
+            } finally {
+                for (int i = first; i <= last; i++) t.shards[i].lock.readLock().unlock();
+            }
+        }
+    }
+
+    // players rated minRating..maxRating, best first
+    public List<FIFARecord> rangeByRating(int minRating, int maxRating) {
+        List<FIFARecord> out = new ArrayList<>();
+        forEachInRange(FIFARecord.ratingProbe(maxRating), FIFARecord.ratingProbe(minRating - 1), out::add);
+        return out;
+    }
+
+    public int shardCount() {
+        return table.shards.length;
+    }
+
+    // records per shard, in key order (for tests and benchmarks)
+    public int[] shardSizes() {
+        rebalanceLock.lock();
+        try {
+            Shard[] s = table.shards;
+            int[] out = new int[s.length];
+            for (int i = 0; i < s.length; i++) {
+                s[i].lock.readLock().lock();
+                out[i] = s[i].tree.size();
+                s[i].lock.readLock().unlock();
+            }
+            return out;
+        } finally {
+            rebalanceLock.unlock();
+        }
+    }
+
+    // a writer that finds a rebalance already running just carries on
+    private void tryRebalance() {
+        if (!rebalanceLock.tryLock()) return;
+        try {
+            rebalance();
+        } finally {
+            rebalanceLock.unlock();
+        }
+    }
+
+    // Splits shards whose share of the writes is over twice the average (or that have
+    // outgrown maxShardSize) at their median; merges neighbours that both got under a
+    // quarter of the average and fit together. Load counters restart afterwards.
+    public void rebalance() {
+        rebalanceLock.lock();
+        Table t = table;
+        int n = t.shards.length;
+        for (Shard s : t.shards) s.lock.writeLock().lock();
+        try {
+            long total = 0;
+            for (Shard s : t.shards) total += s.writes;
+            double avg = (double) total / n;
+
+            List<FIFARecord> lower = new ArrayList<>(n + 4);
+            List<Shard> shards = new ArrayList<>(n + 4);
+            for (int i = 0; i < n; i++) {
+                Shard s = t.shards[i];
+                FIFARecord bound = t.lower[i];
+                boolean hot = s.writes > 2 * avg && n > 1 || s.tree.size() > maxShardSize;
+                if (hot && s.tree.size() >= 2 * MIN_SPLIT && n + shards.size() - i < maxShards) {
+                    FIFARecord median = median(s);
+                    AvLTree.Split<FIFARecord> parts = s.tree.split(median);
+                    parts.greater.insert(median);    // the upper shard starts at the median
+                    Shard a = new Shard(parts.less);
+                    Shard b = new Shard(parts.greater);
+                    a.writes = b.writes = s.writes / 2;    // still hot - not a merge candidate
+                    s.retired = true;
+                    lower.add(bound);
+                    shards.add(a);
+                    lower.add(median);
+                    shards.add(b);
+                    continue;
+                }
+                Shard prev = shards.isEmpty() ? null : shards.get(shards.size() - 1);
+                if (prev != null && prev.writes <= avg / 4 && s.writes <= avg / 4
+                        && prev.tree.size() + s.tree.size() <= maxShardSize / 2) {
+                    prev.tree.union(s.tree);
+                    prev.writes += s.writes;
+                    s.retired = true;
+                    continue;    // s's range now belongs to prev
+                }
+                lower.add(bound);
+                shards.add(s);
+            }
+            for (Shard s : shards) s.writes = 0;
+            table = new Table(lower.toArray(new FIFARecord[0]), shards.toArray(new Shard[0]));
+        } finally {
+            for (Shard s : t.shards) s.lock.writeLock().unlock();
+            rebalanceLock.unlock();
+        }
+    }
+
+    // element at position size/2 (an upper median, so the lower half has size/2 items)
+    private static FIFARecord median(Shard s) {
+        Iterator<FIFARecord> it = s.tree.iterator();
+        for (int i = 0; i < s.tree.size() / 2; i++) it.next();
+        return it.next();
+    }
+}
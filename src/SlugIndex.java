@@ -0,0 +1,201 @@
+/*∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*
+  @file: SlugIndex.java
+  @description: Open-addressing lookup table from player slug to its FIFARecord and
+                to the BST node currently holding that record (if any).
+  @author: Calvin Malaney
+  @date: October 19, 2026
+∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*/
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// Linear probing over three parallel arrays (hash, record, node). The slug is not
+// stored separately - it is read back from the record - so an entry costs one int
+// and two references instead of a HashMap.Node object plus a table slot.
+// Deletes use backward shifting, so there are no tombstones to clean up.
+public class SlugIndex implements Iterable<FIFARecord> {
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] hashes;
+    private FIFARecord[] records;
+    private Node<FIFARecord>[] nodes;
+    private int size;
+
+    public SlugIndex() {
+        this(MIN_CAPACITY);
+    }
+
+    // expectedSize - number of slugs to hold without resizing
+    public SlugIndex(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void allocate(int capacity) {
+        hashes = new int[capacity];
+        records = new FIFARecord[capacity];
+        nodes = (Node<FIFARecord>[]) new Node[capacity];
+    }
+
+    // keeps the load factor at or below 2/3
+    private static int tableSizeFor(int expected) {
+        long needed = Math.max(MIN_CAPACITY, (long) expected * 3 / 2 + 1);
+        if (needed > (1 << 30)) throw new IllegalArgumentException("SlugIndex too large: " + expected);
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+
+    // spread the String hash so that similar slugs don't cluster
+    private static int hash(String slug) {
+        int h = slug.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // returns the slot holding slug, or the empty slot where it would go (as -(slot + 1))
+    private int find(String slug, int h) {
+        int mask = records.length - 1;
+        int i = h & mask;
+        while (records[i] != null) {
+            if (hashes[i] == h && records[i].getPlayerSlug().equals(slug)) return i;
+            i = (i + 1) & mask;
+        }
+        return -(i + 1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // record for slug, or null
+    public FIFARecord get(String slug) {
+        if (slug == null) return null;
+        int i = find(slug, hash(slug));
+        return i >= 0 ? records[i] : null;
+    }
+
+    // tree node currently holding slug's record, or null if it isn't in the tree
+    public Node<FIFARecord> node(String slug) {
+        if (slug == null) return null;
+        int i = find(slug, hash(slug));
+        return i >= 0 ? nodes[i] : null;
+    }
+
+    // adds or replaces the record for its slug; returns the previous record (or null).
+    // A replaced record keeps its node handle - the caller decides whether the tree changes.
+    public FIFARecord put(FIFARecord rec) {
+        String slug = rec.getPlayerSlug();
+        if (slug == null) throw new IllegalArgumentException("record has no slug");
+        int h = hash(slug);
+        int i = find(slug, h);
+        if (i >= 0) {
+            FIFARecord old = records[i];
+            records[i] = rec;
+            return old;
+        }
+        if ((size + 1) * 3 > records.length * 2) {
+            resize(records.length << 1);
+            i = find(slug, h);
+        }
+        i = -i - 1;
+        hashes[i] = h;
+        records[i] = rec;
+        size++;
+        return null;
+    }
+
+    // sets the tree node handle for slug; returns false if the slug isn't indexed
+    public boolean setNode(String slug, Node<FIFARecord> node) {
+        int i = find(slug, hash(slug));
+        if (i < 0) return false;
+        nodes[i] = node;
+        return true;
+    }
+
+    // removes slug entirely; returns its record (or null)
+    public FIFARecord remove(String slug) {
+        if (slug == null) return null;
+        int i = find(slug, hash(slug));
+        if (i < 0) return null;
+        FIFARecord old = records[i];
+        deleteSlot(i);
+        size--;
+        return old;
+    }
+
+    // backward-shift delete: pull later entries of the probe run into the hole
+    private void deleteSlot(int hole) {
+        int mask = records.length - 1;
+        int i = hole;
+        while (true) {
+            i = (i + 1) & mask;
+            if (records[i] == null) break;
+            int home = hashes[i] & mask;
+            // move i into the hole unless its home lies cyclically in (hole, i]
+            boolean stays = (hole <= i) ? (hole < home && home <= i) : (hole < home || home <= i);
+            if (!stays) {
+                hashes[hole] = hashes[i];
+                records[hole] = records[i];
+                nodes[hole] = nodes[i];
+                hole = i;
+            }
+        }
+        records[hole] = null;
+        nodes[hole] = null;
+        hashes[hole] = 0;
+    }
+
+    // every record, in table order
+    @Override
+    public Iterator<FIFARecord> iterator() {
+        return new Iterator<>() {
+            private int i = advance(0);
+
+            private int advance(int from) {
+                while (from < records.length && records[from] == null) from++;
+                return from;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return i < records.length;
+            }
+
+            @Override
+            public FIFARecord next() {
+                if (i >= records.length) throw new NoSuchElementException();
+                FIFARecord r = records[i];
+                i = advance(i + 1);
+                return r;
+            }
+        };
+    }
+
+    // drops every node handle (the tree was cleared) but keeps the records
+    public void clearNodes() {
+        Arrays.fill(nodes, null);
+    }
+
+    // removes everything
+    public void clear() {
+        Arrays.fill(records, null);
+        Arrays.fill(nodes, null);
+        Arrays.fill(hashes, 0);
+        size = 0;
+    }
+
+    private void resize(int capacity) {
+        int[] oldHashes = hashes;
+        FIFARecord[] oldRecords = records;
+        Node<FIFARecord>[] oldNodes = nodes;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int j = 0; j < oldRecords.length; j++) {
+            if (oldRecords[j] == null) continue;
+            int i = oldHashes[j] & mask;
+            while (records[i] != null) i = (i + 1) & mask;
+            hashes[i] = oldHashes[j];
+            records[i] = oldRecords[j];
+            nodes[i] = oldNodes[j];
+        }
+    }
+}
@@ -0,0 +1,112 @@
+// checks AvLTree range aggregates against a brute-force sum over a TreeSet, through
+// inserts (random and ascending), removes, lazy deletes, compaction and set operations
+// same style as TestAvl - no output means success
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class TestAggregate {
+    // count and sum of the items, packed as {count, sum}
+    private static final Aggregate<Integer, long[]> COUNT_SUM = new Aggregate<>( ) {
+        public long[] identity( ) { return new long[] {0, 0}; }
+        public long[] of( Integer x ) { return new long[] {1, x}; }
+        public long[] combine( long[] a, long[] b ) { return new long[] {a[0] + b[0], a[1] + b[1]}; }
+    };
+
+    // the items in order, as a string - checks that combine sees them left to right
+    private static final Aggregate<Integer, String> CONCAT = new Aggregate<>( ) {
+        public String identity( ) { return ""; }
+        public String of( Integer x ) { return x + ","; }
+        public String combine( String a, String b ) { return a + b; }
+    };
+
+    public static void main( String [ ] args ) {
+        final int NUMS = 4000;
+        Random rnd = new Random( 43 );
+
+        System.out.println("Checking... (no more output means success)");
+
+        AvLTree<Integer> avl = new AvLTree<>( );
+        avl.setAggregate( COUNT_SUM );
+        AvLTree<Integer> lazy = new AvLTree<>( true );
+        lazy.setLazyDelete( true, 0.3, true );
+        lazy.setAggregate( COUNT_SUM );
+        TreeSet<Integer> truth = new TreeSet<>( );
+
+        for (int i = 0; i < 10 * NUMS; i++) {
+            // every fourth stretch of operations appends ascending keys (the spine fast path)
+            int k = (i / 500) % 4 == 0 ? NUMS + i : rnd.nextInt( NUMS );
+            if (rnd.nextInt( 3 ) > 0) {
+                avl.insert( k );
+                lazy.insert( k );
+                truth.add( k );
+            } else {
+                avl.remove( k );
+                lazy.remove( k );
+                truth.remove( k );
+            }
+            if (i % 50 == 0) {
+                check( avl, truth, rnd, "avl at op " + i );
+                check( lazy, truth, rnd, "lazy at op " + i );
+            }
+        }
+
+        // set operations, bulk inserts and split keep the subtree values right
+        AvLTree<Integer> other = new AvLTree<>( );
+        for (int i = 0; i < NUMS; i++) {
+            int k = rnd.nextInt( 20 * NUMS );
+            other.insert( k );
+            truth.add( k );
+        }
+        avl.union( other );
+        check( avl, truth, rnd, "union" );
+
+        List<Integer> batch = new ArrayList<>( );
+        for (int i = 0; i < NUMS; i++) batch.add( rnd.nextInt( 20 * NUMS ) );
+        avl.insertAll( batch );
+        truth.addAll( batch );
+        check( avl, truth, rnd, "insertAll" );
+
+        AvLTree<Integer> drop = new AvLTree<>( );
+        for (int i = 0; i < NUMS; i++) {
+            int k = rnd.nextInt( 20 * NUMS );
+            drop.insert( k );
+            truth.remove( k );
+        }
+        avl.difference( drop );
+        check( avl, truth, rnd, "difference" );
+
+        int at = rnd.nextInt( 20 * NUMS );
+        AvLTree.Split<Integer> halves = avl.split( at );
+        check( halves.less, new TreeSet<>( truth.headSet( at, false ) ), rnd, "split (less)" );
+        check( halves.greater, new TreeSet<>( truth.tailSet( at, false ) ), rnd, "split (greater)" );
+
+        // order-sensitive monoid: the range comes back in sorted order
+        AvLTree<Integer> ordered = new AvLTree<>( );
+        for (int i = 0; i < 200; i++) ordered.insert( rnd.nextInt( 1000 ) );
+        ordered.setAggregate( CONCAT );
+        StringBuilder want = new StringBuilder( );
+        for (int x : ordered) if (x >= 100 && x <= 800) want.append( x ).append( ',' );
+        if (!ordered.<String>aggregate( 100, 800 ).equals( want.toString( ) ))
+            System.out.println("Range not combined in order!");
+    }
+
+    private static void check( AvLTree<Integer> t, TreeSet<Integer> truth, Random rnd, String when ) {
+        for (int q = 0; q < 5; q++) {
+            int lo = rnd.nextInt( 60000 ), hi = lo + rnd.nextInt( 60000 );
+            long count = 0, sum = 0;
+            for (int x : truth.subSet( lo, true, hi, true )) {
+                count++;
+                sum += x;
+            }
+            long[] got = t.aggregate( lo, hi );
+            if (got[0] != count || got[1] != sum)
+                System.out.println("Range [" + lo + ", " + hi + "] wrong after " + when + "!");
+        }
+        long[] all = t.aggregate( );
+        if (all[0] != truth.size( ))
+            System.out.println("Whole-tree count wrong after " + when + "!");
+    }
+}
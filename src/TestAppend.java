@@ -0,0 +1,103 @@
+// checks the append fast paths: ascending runs past the current max are mixed with ordinary
+// inserts below it and removes (the max among them, so the cached max and right spine have
+// to be dropped and found again), on AvLTree, BST and BST with scapegoat rebuilds, and each
+// must match a TreeSet with valid shape. A BST fed only ascending keys with rebuilds on must
+// stay within the scapegoat height bound, and node handles must survive the rebuilds.
+// same style as TestAvl - no output means success
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class TestAppend {
+    public static void main( String [ ] args ) {
+        System.out.println("Checking... (no more output means success)");
+
+        AvLTree<Integer> avl = new AvLTree<>( );
+        BST<Integer> bst = new BST<>( );
+        BST<Integer> scapegoat = new BST<>( );
+        scapegoat.setRebalanceOnDegeneration( true );
+        TreeSet<Integer> truth = new TreeSet<>( );
+        Random rnd = new Random( 37 );
+
+        int next = 0;    // one past the largest key appended so far
+        for (int round = 0; round < 200; round++) {
+            // an ascending run, sometimes with gaps
+            int run = rnd.nextInt( 500 );
+            for (int i = 0; i < run; i++) {
+                next += 1 + (rnd.nextInt( 4 ) == 0 ? rnd.nextInt( 10 ) : 0);
+                add( avl, bst, scapegoat, truth, next );
+            }
+            // then ordinary inserts and removes anywhere in the range, the max now and then
+            int mixed = rnd.nextInt( 100 );
+            for (int i = 0; i < mixed; i++) {
+                int k = rnd.nextInt( next + 1 );
+                if (rnd.nextInt( 10 ) == 0 && !truth.isEmpty( )) k = truth.last( );
+                if (rnd.nextBoolean( )) {
+                    add( avl, bst, scapegoat, truth, k );
+                } else {
+                    avl.remove( k );
+                    bst.remove( k );
+                    scapegoat.remove( k );
+                    truth.remove( k );
+                }
+            }
+            if (round % 20 == 0) {
+                String what = "round " + round;
+                compare( avl, avl.size( ), avl.validate( ), truth, what + " AVL" );
+                compare( bst, bst.size( ), bst.validate( ), truth, what + " BST" );
+                compare( scapegoat, scapegoat.size( ), scapegoat.validate( ), truth, what + " scapegoat BST" );
+            }
+        }
+        compare( avl, avl.size( ), avl.validate( ), truth, "end AVL" );
+        compare( bst, bst.size( ), bst.validate( ), truth, "end BST" );
+        compare( scapegoat, scapegoat.size( ), scapegoat.validate( ), truth, "end scapegoat BST" );
+
+        // sorted input only: the rebuilds keep the tree shallow and move nodes, not values
+        final int N = 100000;
+        BST<Integer> sorted = new BST<>( );
+        sorted.setRebalanceOnDegeneration( true );
+        List<Node<Integer>> handles = new ArrayList<>( N );
+        truth.clear( );
+        for (int i = 0; i < N; i++) {
+            handles.add( sorted.addNode( i ) );
+            truth.add( i );
+        }
+        ValidationReport report = sorted.validate( );
+        compare( sorted, sorted.size( ), report, truth, "sorted scapegoat BST" );
+        int bound = (int) (Math.log( N ) / Math.log( 1.5 )) + 1;
+        if (report.height( ) > bound)
+            System.out.println("Sorted appends left height " + report.height( ) + " over " + bound + "!");
+        for (int i = 0; i < N; i++)
+            if (handles.get( i ).getValue( ) != i || sorted.search( i ) != handles.get( i )) {
+                System.out.println("Handle for " + i + " lost in a rebuild!");
+                break;
+            }
+    }
+
+    private static void add( AvLTree<Integer> avl, BST<Integer> bst, BST<Integer> scapegoat,
+                             TreeSet<Integer> truth, int k ) {
+        avl.insert( k );
+        bst.add( k );
+        scapegoat.add( k );
+        truth.add( k );
+    }
+
+    private static void compare( Iterable<Integer> t, int size, ValidationReport report,
+                                 TreeSet<Integer> truth, String what ) {
+        if (size != truth.size( ))
+            System.out.println(what + ": size " + size + " vs " + truth.size( ) + "!");
+        if (!report.ok( ))
+            System.out.println(what + ": " + report);
+        Iterator<Integer> it = t.iterator( );
+        for (Integer x : truth)
+            if (!it.hasNext( ) || !it.next( ).equals( x )) {
+                System.out.println(what + ": contents differ at " + x + "!");
+                return;
+            }
+        if (it.hasNext( ))
+            System.out.println(what + ": extra item " + it.next( ) + "!");
+    }
+}
@@ -0,0 +1,109 @@
+// checks the membership filters: trees with a filter answer exactly like a TreeSet through
+// inserts, removes, rebuilds and set operations, and the filter's own false-positive rate
+// stays near the one asked for
+// same style as TestAvl - no output means success
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class TestBloomFilter {
+    public static void main( String [ ] args ) {
+        final int NUMS = 20000;
+        Random rnd = new Random( 40 );
+
+        System.out.println("Checking... (no more output means success)");
+
+        // no false negatives, whatever the mix of operations
+        AvLTree<Integer> avl = new AvLTree<>( );
+        avl.setMembershipFilter( true, 0.01 );
+        AvLTree<Integer> lazy = new AvLTree<>( );
+        lazy.setLazyDelete( true, 0.3, false );
+        lazy.setMembershipFilter( true, 0.01 );
+        BST<Integer> bst = new BST<>( );
+        bst.setMembershipFilter( true, 0.01 );
+        TreeSet<Integer> truth = new TreeSet<>( );
+
+        for (int i = 0; i < 10 * NUMS; i++) {
+            int k = rnd.nextInt( NUMS );
+            if (rnd.nextInt( 5 ) < 3) {
+                avl.insert( k );
+                lazy.insert( k );
+                bst.add( k );
+                truth.add( k );
+            } else {
+                avl.remove( k );
+                lazy.remove( k );
+                bst.remove( k );
+                truth.remove( k );
+            }
+            int q = rnd.nextInt( 2 * NUMS );
+            boolean want = truth.contains( q );
+            if (avl.contains( q ) != want || lazy.contains( q ) != want || (bst.search( q ) != null) != want)
+                System.out.println("Lookup error for " + q + " at op " + i + "!");
+        }
+
+        // set operations and bulk inserts keep the filter in step
+        AvLTree<Integer> other = new AvLTree<>( );
+        TreeSet<Integer> otherTruth = new TreeSet<>( );
+        for (int i = 0; i < NUMS; i++) {
+            int k = NUMS + rnd.nextInt( 4 * NUMS );
+            other.insert( k );
+            otherTruth.add( k );
+        }
+        avl.union( other );
+        truth.addAll( otherTruth );
+        checkAll( avl, truth, 6 * NUMS, "union" );
+
+        List<Integer> batch = new ArrayList<>( );
+        for (int i = 0; i < NUMS; i++) batch.add( 5 * NUMS + rnd.nextInt( NUMS ) );
+        avl.insertAll( batch );
+        truth.addAll( batch );
+        checkAll( avl, truth, 6 * NUMS, "insertAll" );
+
+        AvLTree<Integer> drop = new AvLTree<>( );
+        for (int i = 0; i < 3 * NUMS; i++) {
+            int k = rnd.nextInt( 6 * NUMS );
+            drop.insert( k );
+            truth.remove( k );
+        }
+        avl.difference( drop );
+        checkAll( avl, truth, 6 * NUMS, "difference" );
+
+        AvLTree<Integer> keep = new AvLTree<>( );
+        TreeSet<Integer> keepTruth = new TreeSet<>( );
+        for (int i = 0; i < 2 * NUMS; i++) {
+            int k = rnd.nextInt( 6 * NUMS );
+            keep.insert( k );
+            keepTruth.add( k );
+        }
+        avl.intersection( keep );
+        truth.retainAll( keepTruth );
+        checkAll( avl, truth, 6 * NUMS, "intersection" );
+
+        avl.makeEmpty( );
+        if (avl.contains( truth.isEmpty( ) ? 0 : truth.first( ) ))
+            System.out.println("Filter not cleared!");
+
+        // measured false-positive rate of a full filter
+        BloomFilter<Integer> f = new BloomFilter<>( 100_000, 0.01 );
+        for (int i = 0; i < 100_000; i++) f.add( i * 7 );
+        int falsePositives = 0;
+        for (int i = 0; i < 1_000_000; i++) {
+            int q = 1_000_000 + i;
+            if (q % 7 != 0 && f.mightContain( q )) falsePositives++;
+        }
+        double rate = falsePositives / 1_000_000.0;
+        if (rate > 0.02)
+            System.out.println("False-positive rate too high: " + rate);
+        for (int i = 0; i < 100_000; i++)
+            if (!f.mightContain( i * 7 )) System.out.println("False negative for " + i * 7 + "!");
+    }
+
+    private static void checkAll( AvLTree<Integer> t, TreeSet<Integer> truth, int range, String what ) {
+        for (int q = 0; q < range; q++)
+            if (t.contains( q ) != truth.contains( q ))
+                System.out.println("Lookup error for " + q + " after " + what + "!");
+    }
+}
@@ -0,0 +1,139 @@
+// checks CsvTailer on a growing file: a malformed row in the middle is skipped and counted
+// without replaying or losing the rows around it, a record split across two polls is
+// applied once it is complete, and updated rows replace the old record in the tree.
+// A tailer following Parser's tree (through Parser.follow) moves only players already in
+// the tree and keeps their node handles current, under Parser's own lock
+// same style as TestAvl - no output means success
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+public class TestCsvTailer {
+    public static void main( String [ ] args ) throws IOException, InterruptedException {
+        System.out.println("Checking... (no more output means success)");
+
+        Path csv = Files.createTempFile( "tail", ".csv" );
+        try {
+            StringBuilder sb = new StringBuilder( "player_slug,name,full_name,best_position,overall_rating,potential\n" );
+            for (int i = 0; i < 5; i++) sb.append( row( i, 60 + i ) );
+            sb.append( "broken-row,Only Two\n" );                // missing columns
+            for (int i = 5; i < 10; i++) sb.append( row( i, 60 + i ) );
+            Files.writeString( csv, sb );
+
+            SlugIndex players = new SlugIndex( );
+            AvLTree<FIFARecord> avl = new AvLTree<>( );
+            CsvTailer tailer = new CsvTailer( csv, players ).feedAvl( avl );
+
+            int applied = tailer.poll( );
+            if (applied != 10 || players.size( ) != 10 || avl.size( ) != 10)
+                System.out.println("Applied " + applied + " rows, index " + players.size( ) + ", tree " + avl.size( ) + "!");
+            if (tailer.skipped( ) != 1 || tailer.lastError( ) == null)
+                System.out.println("Bad row not counted: skipped " + tailer.skipped( ));
+            if (tailer.offset( ) != Files.size( csv ))
+                System.out.println("Offset " + tailer.offset( ) + " short of " + Files.size( csv ));
+            if (tailer.poll( ) != 0 || tailer.skipped( ) != 1)
+                System.out.println("Second poll re-read the file!");
+
+            // a record written in two parts, the break inside a quoted field
+            append( csv, "slug-split,\"Split" );
+            if (tailer.poll( ) != 0 || players.get( "slug-split" ) != null)
+                System.out.println("Half a record applied!");
+            append( csv, ", Name\",Split Full,ST,70,75\n" );
+            if (tailer.poll( ) != 1)
+                System.out.println("Completed record not applied!");
+            FIFARecord split = players.get( "slug-split" );
+            if (split == null || !split.getName( ).equals( "Split, Name" ))
+                System.out.println("Split record read wrong: " + split);
+
+            // an update moves the player in the tree instead of adding a second copy
+            append( csv, row( 3, 90 ) );
+            tailer.poll( );
+            if (avl.size( ) != 11 || players.get( "slug-3" ).getOverallRating( ) != 90)
+                System.out.println("Update not applied: tree " + avl.size( ));
+            if (!avl.validate( ).ok( ))
+                System.out.println("Bad tree " + avl.validate( ));
+
+            // a tree holding some of the players: updates move them, new players stay out
+            SlugIndex index = new SlugIndex( );
+            BST<FIFARecord> bst = new BST<>( );
+            CsvTailer subset = new CsvTailer( csv, index ).feedBst( bst, false );
+            subset.poll( );
+            for (String slug : new String[] {"slug-1", "slug-2"})
+                index.setNode( slug, bst.addNode( index.get( slug ) ) );
+            append( csv, row( 1, 50 ) + row( 4, 51 ) + row( 20, 52 ) );
+            subset.poll( );
+            if (bst.size( ) != 2 || index.node( "slug-4" ) != null || index.node( "slug-20" ) != null
+                    || index.get( "slug-20" ) == null)
+                System.out.println("Players outside the tree were added to it: " + bst.size( ));
+            if (index.node( "slug-1" ) == null || index.node( "slug-1" ).getValue( ) != index.get( "slug-1" )
+                    || bst.search( index.get( "slug-1" ) ) != index.node( "slug-1" ) || !bst.validate( ).ok( ))
+                System.out.println("Updated player's node not replaced!");
+
+            // without a tree to move the node in, the stale handle is dropped
+            SlugIndex handles = new SlugIndex( );
+            CsvTailer bare = new CsvTailer( csv, handles );
+            bare.poll( );
+            handles.setNode( "slug-2", new Node<>( handles.get( "slug-2" ) ) );
+            append( csv, row( 2, 53 ) );
+            bare.poll( );
+            if (handles.node( "slug-2" ) != null)
+                System.out.println("Handle still points at the old record!");
+
+            // background polls wait for the caller's lock
+            ReentrantLock lock = new ReentrantLock( );
+            SlugIndex live = new SlugIndex( );
+            try (CsvTailer follower = new CsvTailer( csv, live )) {
+                lock.lock( );
+                follower.start( 10, lock );
+                Thread.sleep( 200 );
+                if (live.size( ) != 0)
+                    System.out.println("Poll ran without the lock!");
+                lock.unlock( );
+                waitFor( ( ) -> live.size( ) == index.size( ) );
+                if (live.size( ) != index.size( ))
+                    System.out.println("Background poll never ran: " + live.size( ));
+            }
+
+            // end to end through Parser: SEARCH shows the tailed record, not the one loaded
+            // (a file of its own - Parser's loader stops at the broken row above)
+            StringBuilder clean = new StringBuilder( "player_slug,name,full_name,best_position,overall_rating,potential\n" );
+            for (int i = 0; i < 10; i++) clean.append( row( i, 60 + i ) );
+            Files.writeString( csv, clean );
+            long loaded = Files.size( csv );
+            try (Parser parser = new Parser( csv.toString( ) );
+                 CsvTailer follower = parser.follow( csv, loaded, 10 )) {
+                parser.execute( new String[] {"insert", "slug-7"} );
+                append( csv, row( 7, 88 ) + row( 30, 40 ) );
+                waitFor( ( ) -> parser.execute( new String[] {"search", "slug-7"} ).contains( "88" ) );
+                String found = parser.execute( new String[] {"search", "slug-7"} );
+                if (!found.startsWith( "FOUND" ) || !found.contains( "88" ))
+                    System.out.println("Parser search after update: " + found);
+                if (!parser.execute( new String[] {"size"} ).equals( "SIZE=1" ))
+                    System.out.println("New player went into Parser's tree!");
+                if (!parser.execute( new String[] {"insert", "slug-30"} ).startsWith( "INSERT" ))
+                    System.out.println("New player not in Parser's index!");
+                if (follower.lastError( ) != null)
+                    System.out.println("Follower failed: " + follower.lastError( ));
+            }
+        } finally {
+            Files.delete( csv );
+        }
+    }
+
+    // polls cond for up to five seconds
+    private static void waitFor( BooleanSupplier cond ) throws InterruptedException {
+        for (int i = 0; i < 500 && !cond.getAsBoolean( ); i++) Thread.sleep( 10 );
+    }
+
+    private static String row( int i, int rating ) {
+        return "slug-" + i + ",Name " + i + ",Full Name " + i + ",ST," + rating + "," + (rating + 2) + "\n";
+    }
+
+    private static void append( Path csv, String text ) throws IOException {
+        Files.writeString( csv, text, StandardOpenOption.APPEND );
+    }
+}
@@ -0,0 +1,70 @@
+// checks FIFAGenerator: same seed gives the same records in any order of generation,
+// the CSV it writes loads back through Parser unchanged, the position mix is honoured,
+// and the data has the rating/name ties compareTo has to break by slug
+// same style as TestAvl - no output means success
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestFIFAGenerator {
+    public static void main( String [ ] args ) throws IOException {
+        final int NUMS = 20000;
+
+        System.out.println("Checking... (no more output means success)");
+
+        List<FIFARecord> a = new FIFAGenerator( 7 ).list( NUMS );
+        List<FIFARecord> b = new FIFAGenerator( 7 ).list( NUMS );
+        FIFAGenerator c = new FIFAGenerator( 7 );
+        for (int i = NUMS - 1; i >= 0; i--) {
+            if (!same( a.get( i ), b.get( i ) ) || !same( a.get( i ), c.record( i ) ))
+                System.out.println("Not reproducible at " + i + "!");
+        }
+        if (same( a.get( 0 ), new FIFAGenerator( 8 ).record( 0 ) ))
+            System.out.println("Seed ignored!");
+
+        // round trip through the CSV loader
+        Path csv = Files.createTempFile( "synthetic", ".csv" );
+        try {
+            new FIFAGenerator( 7 ).writeCsv( csv, NUMS );
+            List<FIFARecord> loaded = Parser.loadCsv( csv.toString( ), Integer.MAX_VALUE );
+            if (loaded.size( ) != NUMS)
+                System.out.println("CSV has " + loaded.size( ) + " rows!");
+            for (int i = 0; i < Math.min( NUMS, loaded.size( ) ); i++)
+                if (!same( a.get( i ), loaded.get( i ) ))
+                    System.out.println("CSV row " + i + " differs!");
+        } finally {
+            Files.delete( csv );
+        }
+
+        // ratings in range, potential never below overall, and plenty of name ties
+        int nameTies = 0;
+        List<FIFARecord> sorted = new ArrayList<>( a );
+        sorted.sort( null );
+        for (int i = 0; i < NUMS; i++) {
+            FIFARecord r = sorted.get( i );
+            if (r.getOverallRating( ) < 40 || r.getOverallRating( ) > 94 || r.getPotential( ) < r.getOverallRating( ))
+                System.out.println("Bad ratings: " + r);
+            if (i > 0 && sorted.get( i - 1 ).compareTo( r ) >= 0)
+                System.out.println("Duplicate or unsorted at " + i + "!");
+            if (i > 0 && sorted.get( i - 1 ).getOverallRating( ) == r.getOverallRating( )
+                    && sorted.get( i - 1 ).getName( ).equalsIgnoreCase( r.getName( ) ))
+                nameTies++;
+        }
+        if (nameTies < NUMS / 100)
+            System.out.println("Too few rating+name ties: " + nameTies);
+
+        FIFAGenerator keepers = new FIFAGenerator( 1 ).setPositionMix( new String[] {"GK", "ST"}, new double[] {0, 1} );
+        for (int i = 0; i < 1000; i++)
+            if (!keepers.record( i ).getBestPosition( ).equals( "ST" ))
+                System.out.println("Position mix ignored!");
+    }
+
+    private static boolean same( FIFARecord x, FIFARecord y ) {
+        return x.getPlayerSlug( ).equals( y.getPlayerSlug( ) ) && x.getName( ).equals( y.getName( ) )
+                && x.getFullName( ).equals( y.getFullName( ) ) && x.getBestPosition( ).equals( y.getBestPosition( ) )
+                && x.getOverallRating( ) == y.getOverallRating( ) && x.getPotential( ) == y.getPotential( );
+    }
+}
@@ -0,0 +1,66 @@
+// checks FrozenIndex against the tree it was frozen from: get returns the stored item for
+// everything in the tree and null for everything between, iteration gives the tree's order,
+// and thawing gives back a valid tree - for sizes 0, 1 and either side of each power of two,
+// where the Eytzinger layout's last level is full or has a single slot
+// same style as TestAvl - no output means success
+
+import java.util.Iterator;
+
+public class TestFrozenIndex {
+    public static void main( String [ ] args ) {
+        System.out.println("Checking... (no more output means success)");
+
+        int[] sizes = {0, 1, 2, 3, 4, 7, 8, 15, 16, 31, 32, 1023, 1024, 1025, 65535, 65536};
+        for (int n : sizes) {
+            // keys 1000, 1002, ... - boxed outside the Integer cache, so each is its own object
+            AvLTree<Integer> avl = new AvLTree<>( );
+            BST<Integer> bst = new BST<>( );
+            for (int i = 0; i < n; i++) {
+                int k = 1000 + 2 * ((i * 7919) % n);   // scrambled order, still every key once
+                avl.insert( k );
+                bst.add( k );
+            }
+            check( avl.freeze( ), avl, n, "AVL n=" + n );
+            check( bst.freeze( ), bst, n, "BST n=" + n );
+        }
+    }
+
+    private static void check( FrozenIndex<Integer> f, Iterable<Integer> tree, int n, String what ) {
+        if (f.size( ) != n)
+            System.out.println(what + ": size " + f.size( ) + "!");
+
+        // same items, same order, and get hands back the stored object itself
+        Iterator<Integer> it = f.iterator( );
+        int seen = 0;
+        for (Integer x : tree) {
+            if (!it.hasNext( )) {
+                System.out.println(what + ": iteration ends after " + seen + "!");
+                return;
+            }
+            Integer y = it.next( );
+            if (y != x)
+                System.out.println(what + ": item " + seen + " is " + y + ", tree has " + x + "!");
+            if (f.get( Integer.valueOf( x.intValue( ) ) ) != x || !f.contains( x ))
+                System.out.println(what + ": get( " + x + " ) missed the stored item!");
+            seen++;
+        }
+        if (it.hasNext( ))
+            System.out.println(what + ": extra item " + it.next( ) + "!");
+
+        // misses on both sides of every key
+        for (int k = 999; k <= 1000 + 2 * n; k += 2)
+            if (f.get( k ) != null || f.contains( k ))
+                System.out.println(what + ": found absent " + k + "!");
+
+        AvLTree<Integer> a = f.thawAVL( );
+        BST<Integer> b = f.thawBST( );
+        if (a.size( ) != n || !a.validate( ).ok( ) || b.size( ) != n || !b.validate( ).ok( ))
+            System.out.println(what + ": bad thawed tree " + a.validate( ) + " / " + b.validate( ));
+        Iterator<Integer> ai = a.iterator( ), bi = b.iterator( );
+        for (Integer x : f)
+            if (!ai.hasNext( ) || ai.next( ) != x || !bi.hasNext( ) || bi.next( ) != x) {
+                System.out.println(what + ": thawed tree differs at " + x + "!");
+                return;
+            }
+    }
+}
@@ -0,0 +1,93 @@
+// checks AvLTree.insertAll against a TreeSet: batches with duplicates inside them and
+// against the tree, into an empty tree (built directly) and a non-empty one (joined in),
+// small batches and ones large enough to be built in parallel, and a tree with tombstones
+// same style as TestAvl - no output means success
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class TestInsertAll {
+    public static void main( String [ ] args ) {
+        System.out.println("Checking... (no more output means success)");
+
+        Random rnd = new Random( 30 );
+        for (int n : new int[] {1, 2, 10, 1000, 50000}) {
+            // into an empty tree, every key about twice
+            AvLTree<Integer> t = new AvLTree<>( );
+            TreeSet<Integer> truth = new TreeSet<>( );
+            List<Integer> batch = batch( rnd, n, n / 2 + 1, truth );
+            t.insertAll( batch );
+            compare( t, truth, "empty + " + n );
+
+            // into the same tree again, half the keys already present
+            batch = batch( rnd, n, n, truth );
+            t.insertAll( batch );
+            compare( t, truth, "non-empty + " + n );
+
+            // a batch of nothing but keys already there changes nothing
+            t.insertAll( new ArrayList<>( truth ) );
+            compare( t, truth, "all present + " + n );
+
+            // ordinary inserts and removes still work on the joined tree
+            for (int i = 0; i < n; i++) {
+                int k = rnd.nextInt( 2 * n );
+                if (rnd.nextBoolean( )) {
+                    t.insert( k );
+                    truth.add( k );
+                } else {
+                    t.remove( k );
+                    truth.remove( k );
+                }
+            }
+            compare( t, truth, "churn after " + n );
+        }
+
+        // tombstoned items in the batch come back, the rest join around them
+        AvLTree<Integer> t = new AvLTree<>( );
+        TreeSet<Integer> truth = new TreeSet<>( );
+        for (int i = 0; i < 20000; i++) {
+            t.insert( i );
+            truth.add( i );
+        }
+        t.setLazyDelete( true, 0.9, false );
+        for (int i = 0; i < 20000; i += 3) {
+            t.remove( i );
+            truth.remove( i );
+        }
+        List<Integer> batch = new ArrayList<>( );
+        for (int i = 0; i < 40000; i += 2) batch.add( i );
+        t.insertAll( batch );
+        truth.addAll( batch );
+        compare( t, truth, "with tombstones" );
+
+        t.insertAll( new ArrayList<>( ) );
+        compare( t, truth, "empty batch" );
+    }
+
+    // n random keys from [0, range), recorded in truth
+    private static List<Integer> batch( Random rnd, int n, int range, TreeSet<Integer> truth ) {
+        List<Integer> batch = new ArrayList<>( n );
+        for (int i = 0; i < n; i++) batch.add( rnd.nextInt( range ) + truth.size( ) / 2 );
+        truth.addAll( batch );
+        return batch;
+    }
+
+    private static void compare( AvLTree<Integer> t, TreeSet<Integer> truth, String what ) {
+        if (t.size( ) != truth.size( ))
+            System.out.println(what + ": size " + t.size( ) + " vs " + truth.size( ) + "!");
+        ValidationReport report = t.validate( );
+        if (!report.ok( ))
+            System.out.println(what + ": " + report);
+        Iterator<Integer> it = t.iterator( );
+        for (Integer x : truth)
+            if (!it.hasNext( ) || !it.next( ).equals( x ) || !t.contains( x )) {
+                System.out.println(what + ": contents differ at " + x + "!");
+                return;
+            }
+        if (it.hasNext( ))
+            System.out.println(what + ": extra item " + it.next( ) + "!");
+    }
+}
@@ -0,0 +1,100 @@
+// checks lazy deletion with background compaction: inserts, removes and revivals of
+// tombstoned items keep running while a compacted tree is built on another thread, and
+// once it is swapped in (with those operations replayed) the tree still matches a TreeSet -
+// contents, size, tombstone counts and every AVL invariant. Plain and arena-backed trees.
+// same style as TestAvl - no output means success
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class TestLazyDelete {
+    public static void main( String [ ] args ) {
+        System.out.println("Checking... (no more output means success)");
+
+        check( new AvLTree<>( ), "plain" );
+        check( new AvLTree<>( true ), "arena" );
+    }
+
+    private static void check( AvLTree<Integer> t, String what ) {
+        final int NUMS = 50000;
+        final int OPS = 400000;
+        final double RATIO = 0.25;
+        Random rnd = new Random( 28 );
+        TreeSet<Integer> truth = new TreeSet<>( );
+        List<Integer> removed = new ArrayList<>( );    // candidates for revival
+
+        for (int i = 0; i < NUMS; i++) {
+            int k = rnd.nextInt( 2 * NUMS );
+            t.insert( k );
+            truth.add( k );
+        }
+        t.setLazyDelete( true, RATIO, true );
+
+        int swaps = 0, inFlight = 0;
+        double lastRatio = 0;
+        for (int i = 0; i < OPS; i++) {
+            // alternate remove-heavy and insert-heavy stretches so tombstones pile up past the ratio
+            int removePercent = (i / 50000) % 2 == 0 ? 90 : 20;
+            int roll = rnd.nextInt( 100 );
+            int k;
+            if (roll < removePercent) {
+                k = rnd.nextInt( 2 * NUMS );
+                t.remove( k );
+                if (truth.remove( k )) removed.add( k );
+            } else if (roll < removePercent + (100 - removePercent) / 2 || removed.isEmpty( )) {
+                k = rnd.nextInt( 2 * NUMS );
+                t.insert( k );
+                truth.add( k );
+            } else {
+                // bring back a tombstoned (or already compacted-away) item
+                k = removed.remove( rnd.nextInt( removed.size( ) ) );
+                t.insert( k );
+                truth.add( k );
+            }
+            if (t.contains( k ) != truth.contains( k ) || t.size( ) != truth.size( ))
+                System.out.println(what + ": op " + i + " on " + k + " - contains " + t.contains( k )
+                        + ", size " + t.size( ) + " vs " + truth.size( ) + "!");
+
+            // past the threshold means a compaction was started and hasn't been swapped in yet
+            double ratio = t.tombstoneRatio( );
+            if (ratio > RATIO) inFlight++;
+            if (ratio < lastRatio - 0.1) {
+                swaps++;
+                compare( t, truth, what + " after swap " + swaps );
+            }
+            lastRatio = ratio;
+        }
+        if (swaps == 0 || inFlight == 0)
+            System.out.println(what + ": no background compaction overlapped the operations ("
+                    + swaps + " swaps, " + inFlight + " ops in flight)");
+
+        t.awaitCompaction( );
+        compare( t, truth, what + " after awaitCompaction" );
+        t.compact( );
+        compare( t, truth, what + " after compact" );
+        if (t.tombstoneRatio( ) != 0.0)
+            System.out.println(what + ": tombstones left after compact: " + t.tombstoneRatio( ));
+    }
+
+    private static void compare( AvLTree<Integer> t, TreeSet<Integer> truth, String what ) {
+        if (t.size( ) != truth.size( ))
+            System.out.println(what + ": size " + t.size( ) + " vs " + truth.size( ) + "!");
+        double ratio = t.tombstoneRatio( );
+        if (ratio < 0 || ratio >= 1)
+            System.out.println(what + ": tombstone ratio " + ratio + "!");
+        ValidationReport report = t.validate( );
+        if (!report.ok( ))
+            System.out.println(what + ": " + report);
+        Iterator<Integer> it = t.iterator( );
+        for (Integer x : truth)
+            if (!it.hasNext( ) || !it.next( ).equals( x )) {
+                System.out.println(what + ": contents differ at " + x + "!");
+                return;
+            }
+        if (it.hasNext( ))
+            System.out.println(what + ": extra item " + it.next( ) + "!");
+    }
+}
@@ -0,0 +1,80 @@
+// checks the write-ahead log: a Parser that logs past an automatic checkpoint comes back
+// with the same tree after a restart, a log opened without recover appends instead of
+// overwriting, and a torn last line is cut off on replay
+// same style as TestAvl - no output means success
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class TestMutationLog {
+    public static void main( String [ ] args ) throws IOException {
+        final int PLAYERS = 2000;
+        final int OPS = 100_000 + 7;    // just past the automatic checkpoint
+
+        System.out.println("Checking... (no more output means success)");
+
+        Path csv = Files.createTempFile( "players", ".csv" );
+        Path dir = Files.createTempDirectory( "wal" );
+        try {
+            new FIFAGenerator( 3 ).writeCsv( csv, PLAYERS );
+            List<FIFARecord> players = Parser.loadCsv( csv.toString( ), Integer.MAX_VALUE );
+
+            // every command is logged and flips one player in or out, so losing any one shows
+            String expected;
+            boolean[] in = new boolean[PLAYERS];
+            try (Parser p = new Parser( csv.toString( ), null, dir.toString( ) )) {
+                for (int i = 0; i < OPS; i++) {
+                    int k = (int) ((i * 7919L) % PLAYERS);
+                    String slug = players.get( k ).getPlayerSlug( );
+                    String response = p.execute( new String[] {in[k] ? "remove" : "insert", slug} );
+                    if (!response.startsWith( in[k] ? "REMOVED" : "INSERT" ))
+                        System.out.println("Op " + i + " failed: " + response);
+                    in[k] = !in[k];
+                }
+                expected = p.execute( new String[] {"print"} );
+            }
+            try (Parser p = new Parser( csv.toString( ), null, dir.toString( ) )) {
+                if (!p.execute( new String[] {"print"} ).equals( expected ))
+                    System.out.println("Tree differs after restart across a checkpoint!");
+            }
+
+            // a log opened without recover must not write over the records already there
+            long before = Files.size( dir.resolve( "wal.log" ) );
+            try (MutationLog log = new MutationLog( dir, 4, 10 )) {
+                log.append( "insert", players.get( 0 ).getPlayerSlug( ) );
+            }
+            if (Files.size( dir.resolve( "wal.log" ) ) <= before)
+                System.out.println("Append without recover overwrote the log!");
+            int[] logged = {0};
+            try (MutationLog log = new MutationLog( dir, 4, 10 )) {
+                log.recover( command -> logged[0]++ );
+            }
+
+            // a torn last line is dropped and the next record follows the last good one
+            Files.writeString( dir.resolve( "wal.log" ), "0badc0de insert half-writ", StandardOpenOption.APPEND );
+            int[] replayed = {0};
+            try (MutationLog log = new MutationLog( dir, 4, 10 )) {
+                log.recover( command -> replayed[0]++ );
+                log.append( "clear" );
+            }
+            if (replayed[0] != logged[0])
+                System.out.println("Torn line replayed: " + replayed[0] + " vs " + logged[0]);
+            int[] after = {0};
+            try (MutationLog log = new MutationLog( dir, 4, 10 )) {
+                log.recover( command -> after[0]++ );
+            }
+            if (after[0] != logged[0] + 1)
+                System.out.println("Record after a torn line lost: " + after[0] + " vs " + (logged[0] + 1));
+        } finally {
+            Files.delete( csv );
+            try (Stream<Path> files = Files.walk( dir )) {
+                for (Path f : files.sorted( Comparator.reverseOrder( ) ).toList( )) Files.delete( f );
+            }
+        }
+    }
+}
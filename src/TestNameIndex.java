@@ -0,0 +1,72 @@
+// checks NameIndex completions against a brute-force scan, after a bulk build and
+// through random inserts and removes
+// same style as TestAvl - no output means success
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+public class TestNameIndex {
+    private static final String[] SURNAMES = {"Silva", "Santos", "Sanchez", "Smith", "Smithson", "Kim", "Kimura", "Lopez"};
+
+    public static void main( String [ ] args ) {
+        final int NUMS = 3000;
+        final int K = 5;
+        Random rnd = new Random( 11 );
+
+        System.out.println("Checking... (no more output means success)");
+
+        // few distinct surnames and lots of shared prefixes, so nodes split and fold
+        List<FIFARecord> players = new ArrayList<>();
+        for (int i = 0; i < NUMS; i++) {
+            String surname = SURNAMES[rnd.nextInt( SURNAMES.length )];
+            String first = "" + (char) ('A' + rnd.nextInt( 26 )) + (char) ('a' + rnd.nextInt( 26 ));
+            players.add( new FIFARecord( "p" + i + "-" + surname.toLowerCase( Locale.ROOT ), surname + " " + first.charAt( 0 ),
+                    "ST", first + " " + surname, 50 + rnd.nextInt( 40 ), 60 ) );
+        }
+
+        List<FIFARecord> live = new ArrayList<>( players.subList( 0, NUMS / 2 ) );
+        NameIndex index = NameIndex.build( live, K );
+        check( index, live, K, rnd );
+
+        for (int i = 0; i < NUMS; i++) {
+            FIFARecord r = players.get( rnd.nextInt( NUMS ) );
+            if (live.contains( r )) {
+                if (!index.remove( r ))
+                    System.out.println("Remove error!");
+                live.remove( r );
+            } else {
+                index.insert( r );
+                live.add( r );
+            }
+            if (i % 100 == 0) check( index, live, K, rnd );
+        }
+        check( index, live, K, rnd );
+        if (index.size() != live.size())
+            System.out.println("Size error!");
+
+        for (FIFARecord r : new ArrayList<>( live )) index.remove( r );
+        if (index.size() != 0 || !index.complete( "", K ).isEmpty())
+            System.out.println("Empty error!");
+    }
+
+    private static void check( NameIndex index, List<FIFARecord> live, int k, Random rnd ) {
+        List<String> prefixes = new ArrayList<>( List.of( "", "s", "sa", "smith", "smiths", "kim", "kimu", "p1", "p12-", "zz" ) );
+        for (FIFARecord r : live.subList( 0, Math.min( 20, live.size() ) )) {
+            String full = r.getFullName().toLowerCase( Locale.ROOT );
+            prefixes.add( full.substring( 0, 1 + rnd.nextInt( full.length() ) ) );
+        }
+        for (String p : prefixes) {
+            List<FIFARecord> want = new ArrayList<>();
+            for (FIFARecord r : live)
+                if (r.getName().toLowerCase( Locale.ROOT ).startsWith( p ) || r.getFullName().toLowerCase( Locale.ROOT ).startsWith( p )
+                        || r.getPlayerSlug().startsWith( p ))
+                    want.add( r );
+            want.sort( null );
+            want = want.subList( 0, Math.min( k, want.size() ) );
+            if (!index.complete( p.toUpperCase( Locale.ROOT ), k ).equals( want ))
+                System.out.println("Completion error for '" + p + "'!");
+        }
+    }
+}
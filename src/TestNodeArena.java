@@ -0,0 +1,104 @@
+// checks arena-backed trees against plain ones: the same random churn (inserts, removes,
+// re-inserts of removed keys, so nodes are recycled) runs on BST(true) / BST() and
+// AvLTree(true) / AvLTree(), and both must hold the same items in the same order with
+// valid shape. BST node handles must keep their value until that node is removed, which
+// catches a slot handed out twice. Then clear()/makeEmpty() resets the arena and the
+// churn runs again on the emptied tree.
+// same style as TestAvl - no output means success
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+public class TestNodeArena {
+    public static void main( String [ ] args ) {
+        System.out.println("Checking... (no more output means success)");
+
+        BST<Integer> pooledBst = new BST<>( true );
+        BST<Integer> plainBst = new BST<>( );
+        AvLTree<Integer> pooledAvl = new AvLTree<>( true );
+        AvLTree<Integer> plainAvl = new AvLTree<>( );
+        Map<Integer, Node<Integer>> handles = new HashMap<>( );
+        Random rnd = new Random( 31 );
+
+        for (int round = 0; round < 3; round++) {
+            churn( rnd, pooledBst, plainBst, pooledAvl, plainAvl, handles, "round " + round );
+
+            if (round == 1) {
+                // drop everything at once, then the arenas hand out their old slots again
+                pooledBst.clear( );
+                plainBst.clear( );
+                pooledAvl.makeEmpty( );
+                plainAvl.makeEmpty( );
+                handles.clear( );
+                if (pooledBst.size( ) != 0 || pooledBst.iterator( ).hasNext( )
+                        || !pooledAvl.isEmpty( ) || pooledAvl.iterator( ).hasNext( ))
+                    System.out.println("Trees not empty after clear!");
+            }
+        }
+    }
+
+    private static void churn( Random rnd, BST<Integer> pooledBst, BST<Integer> plainBst,
+                               AvLTree<Integer> pooledAvl, AvLTree<Integer> plainAvl,
+                               Map<Integer, Node<Integer>> handles, String what ) {
+        final int RANGE = 5000;
+        final int OPS = 200000;
+
+        for (int i = 0; i < OPS; i++) {
+            int k = rnd.nextInt( RANGE );
+            int roll = rnd.nextInt( 10 );
+            if (roll < 5) {
+                Node<Integer> n = pooledBst.addNode( k );
+                if (n != null) handles.put( k, n );
+                plainBst.add( k );
+                pooledAvl.insert( k );
+                plainAvl.insert( k );
+            } else if (roll < 8) {
+                pooledBst.remove( k );
+                handles.remove( k );
+                plainBst.remove( k );
+                pooledAvl.remove( k );
+                plainAvl.remove( k );
+            } else {
+                // by handle, so the node itself goes back to the arena
+                Node<Integer> n = handles.remove( k );
+                if (pooledBst.removeNode( n ) != (n != null))
+                    System.out.println(what + ": removeNode( " + k + " ) failed!");
+                plainBst.remove( k );
+                pooledAvl.remove( k );
+                plainAvl.remove( k );
+            }
+        }
+
+        compare( pooledBst, plainBst, pooledBst.size( ), plainBst.size( ), what + " BST" );
+        compare( pooledAvl, plainAvl, pooledAvl.size( ), plainAvl.size( ), what + " AVL" );
+        if (!pooledBst.validate( ).ok( ))
+            System.out.println(what + " BST: " + pooledBst.validate( ));
+        if (!pooledAvl.validate( ).ok( ))
+            System.out.println(what + " AVL: " + pooledAvl.validate( ));
+
+        // every handle still holds its own key and is the node the tree finds for it
+        if (handles.size( ) != pooledBst.size( ))
+            System.out.println(what + ": " + handles.size( ) + " handles for " + pooledBst.size( ) + " items!");
+        for (Map.Entry<Integer, Node<Integer>> e : handles.entrySet( ))
+            if (!e.getValue( ).getValue( ).equals( e.getKey( ) ) || pooledBst.search( e.getKey( ) ) != e.getValue( )) {
+                System.out.println(what + ": handle for " + e.getKey( ) + " now holds " + e.getValue( ).getValue( ) + "!");
+                return;
+            }
+    }
+
+    private static void compare( Iterable<Integer> pooled, Iterable<Integer> plain,
+                                 int pooledSize, int plainSize, String what ) {
+        if (pooledSize != plainSize)
+            System.out.println(what + ": size " + pooledSize + " vs " + plainSize + "!");
+        Iterator<Integer> it = pooled.iterator( );
+        for (Integer x : plain)
+            if (!it.hasNext( ) || !it.next( ).equals( x )) {
+                System.out.println(what + ": contents differ at " + x + "!");
+                return;
+            }
+        if (it.hasNext( ))
+            System.out.println(what + ": extra item " + it.next( ) + "!");
+    }
+}
@@ -0,0 +1,125 @@
+// checks OffHeapAvlTree against the on-heap AvLTree, that a mapped tree survives a reopen,
+// and that updating the same players over and over doesn't keep growing the data file
+// same style as TestAvl - no output means success
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+public class TestOffHeapAvl {
+    public static void main( String [ ] args ) throws IOException {
+        final int NUMS = 100000;
+        Random rnd = new Random( 42 );
+
+        System.out.println("Checking... (no more output means success)");
+
+        // lots of rating ties so the name/slug tie-breaks get exercised
+        List<FIFARecord> players = new ArrayList<>();
+        for (int i = 0; i < NUMS; i++) {
+            int overall = 60 + rnd.nextInt( 20 );
+            players.add( new FIFARecord( "player-" + i, "Name" + rnd.nextInt( 50 ), "ST",
+                    "Full Name " + i, overall, overall + rnd.nextInt( 5 ) ) );
+        }
+
+        Path base = Files.createTempDirectory( "offheap" ).resolve( "players" );
+        try (OffHeapAvlTree t = OffHeapAvlTree.open( base )) {
+            AvLTree<FIFARecord> expected = new AvLTree<>();
+            for (FIFARecord r : players) {
+                t.insert( r );
+                expected.insert( r );
+            }
+            // remove every third player
+            for (int i = 0; i < NUMS; i += 3) {
+                if (!t.remove( players.get( i ) ))
+                    System.out.println("Remove error!");
+                expected.remove( players.get( i ) );
+            }
+            if (t.remove( players.get( 0 ) ))
+                System.out.println("Double remove error!");
+
+            if (t.size() != expected.size())
+                System.out.println("Size error!");
+            for (int i = 0; i < NUMS; i++)
+                if (t.contains( players.get( i ) ) != (i % 3 != 0))
+                    System.out.println("Find error!");
+        }
+
+        // reopen the mapped files and scan everything in order
+        try (OffHeapAvlTree t = OffHeapAvlTree.open( base )) {
+            AvLTree<FIFARecord> expected = new AvLTree<>();
+            for (int i = 0; i < NUMS; i++)
+                if (i % 3 != 0) expected.insert( players.get( i ) );
+
+            FIFARecord lo = expected.findMin();
+            FIFARecord hi = expected.findMax();
+            Iterator<FIFARecord> it = expected.iterator();
+            t.forEachInRange( lo, hi, r -> {
+                FIFARecord e = it.next();
+                if (!e.getPlayerSlug().equals( r.getPlayerSlug() ) || e.getPotential() != r.getPotential()
+                        || !e.getFullName().equals( r.getFullName() ))
+                    System.out.println("Range scan error!");
+            } );
+            if (it.hasNext())
+                System.out.println("Range scan missed items!");
+        }
+
+        // update churn: every round replaces each player with a re-rated copy
+        final int PLAYERS = 5000;
+        final int ROUNDS = 40;
+        Path dir = Files.createTempDirectory( "offheap" );
+        Path churn = dir.resolve( "churn" );
+        try {
+            List<FIFARecord> current = new ArrayList<>( players.subList( 0, PLAYERS ) );
+            long firstSize;
+            try (OffHeapAvlTree t = OffHeapAvlTree.open( churn )) {
+                for (FIFARecord r : current) t.insert( r );
+                t.force( );
+                firstSize = Files.size( Path.of( churn + ".data" ) );
+                for (int round = 0; round < ROUNDS; round++) {
+                    for (int i = 0; i < PLAYERS; i++) {
+                        FIFARecord old = current.get( i );
+                        int overall = 60 + rnd.nextInt( 20 );
+                        FIFARecord updated = new FIFARecord( old.getPlayerSlug(), old.getName(), old.getBestPosition(),
+                                old.getFullName(), overall, overall + round % 5 );
+                        if (!t.remove( old ))
+                            System.out.println("Churn remove error in round " + round + "!");
+                        t.insert( updated );
+                        current.set( i, updated );
+                    }
+                }
+                if (t.size() != PLAYERS || t.deadPayloadBytes() > Files.size( Path.of( churn + ".data" ) ))
+                    System.out.println("Churn size error: " + t.size() + ", dead " + t.deadPayloadBytes());
+            }
+            // without compaction the file would hold every round's copies
+            long lastSize = Files.size( Path.of( churn + ".data" ) );
+            if (lastSize > 4 * firstSize)
+                System.out.println("Data file grew from " + firstSize + " to " + lastSize + " bytes!");
+
+            // and the records that survive are the latest ones, found by search and by scan
+            try (OffHeapAvlTree t = OffHeapAvlTree.open( churn )) {
+                AvLTree<FIFARecord> expected = new AvLTree<>();
+                for (FIFARecord r : current) {
+                    expected.insert( r );
+                    FIFARecord got = t.get( r );
+                    if (got == null || got.getPotential() != r.getPotential() || !got.getFullName().equals( r.getFullName() ))
+                        System.out.println("Churned record lost: " + r.getPlayerSlug());
+                }
+                Iterator<FIFARecord> it = expected.iterator();
+                t.forEachInRange( expected.findMin(), expected.findMax(), r -> {
+                    if (!it.hasNext() || !it.next().getPlayerSlug().equals( r.getPlayerSlug() ))
+                        System.out.println("Churned range scan error!");
+                } );
+            }
+        } finally {
+            try (Stream<Path> files = Files.list( dir )) {
+                for (Path f : files.toList()) Files.delete( f );
+            }
+            Files.delete( dir );
+        }
+    }
+}
@@ -0,0 +1,103 @@
+// checks SeasonMerger against the obvious way (load every file, keep the last record per
+// slug, sort): same records in the same order whichever file is newest, players whose
+// rating changed between seasons appear once, slugs differing only in case are one player
+// (the latest wins), and the tree built from the merge is valid
+// same style as TestAvl - no output means success
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+public class TestSeasonMerger {
+    public static void main( String [ ] args ) throws IOException {
+        System.out.println("Checking... (no more output means success)");
+
+        // same seed, so the same slugs - but the ratings move between seasons
+        Path older = Files.createTempFile( "season", ".csv" );
+        Path newer = Files.createTempFile( "season", ".csv" );
+        Path patch = Files.createTempFile( "season", ".csv" );
+        Path empty = Files.createTempFile( "season", ".csv" );
+        Path cased = Files.createTempFile( "season", ".csv" );
+        try {
+            new FIFAGenerator( 7 ).writeCsv( older, 6000 );
+            new FIFAGenerator( 7 ).setRatingDistribution( 70, 5 ).writeCsv( newer, 9000 );
+            // a patch touching a few players, one of them twice (the last row counts)
+            FIFAGenerator gen = new FIFAGenerator( 7 );
+            StringBuilder sb = new StringBuilder( "player_slug,name,full_name,best_position,overall_rating,potential\n" );
+            for (int i : new int[] {3, 500, 8999, 3})
+                row( sb, gen.record( i ), gen.record( i ).getPlayerSlug( ), 50 + i % 40 + sb.length( ) % 3 );
+            Files.writeString( patch, sb );
+            Files.writeString( empty, "player_slug,name,full_name,best_position,overall_rating,potential\n" );
+            // upper-cased slugs: one with a new rating, one otherwise identical to the older season
+            sb = new StringBuilder( "player_slug,name,full_name,best_position,overall_rating,potential\n" );
+            FIFARecord moved = gen.record( 42 ), same = gen.record( 77 );
+            row( sb, moved, moved.getPlayerSlug( ).toUpperCase( Locale.ROOT ), 99 );
+            row( sb, same, same.getPlayerSlug( ).toUpperCase( Locale.ROOT ), same.getOverallRating( ) );
+            Files.writeString( cased, sb );
+
+            check( List.of( older.toString( ), newer.toString( ), patch.toString( ) ), "older, newer, patch" );
+            check( List.of( newer.toString( ), older.toString( ) ), "newer, older" );
+            check( List.of( patch.toString( ), empty.toString( ), older.toString( ) ), "patch, empty, older" );
+            check( List.of( older.toString( ), cased.toString( ) ), "older, case variants" );
+            check( List.of( cased.toString( ), older.toString( ), patch.toString( ) ), "case variants, older, patch" );
+            check( List.of( older.toString( ) ), "one file" );
+            check( List.of( ), "no files" );
+
+            try {
+                SeasonMerger.mergeAll( List.of( older.toString( ), older + ".missing" ) );
+                System.out.println("Missing file not reported!");
+            } catch (IOException expected) {
+            }
+        } finally {
+            Files.delete( older );
+            Files.delete( newer );
+            Files.delete( patch );
+            Files.delete( empty );
+            Files.delete( cased );
+        }
+    }
+
+    private static void check( List<String> files, String what ) throws IOException {
+        Map<String, FIFARecord> bySlug = new LinkedHashMap<>( );
+        for (String f : files)
+            for (FIFARecord r : Parser.loadCsv( f, Integer.MAX_VALUE )) bySlug.put( r.getPlayerSlug( ).toLowerCase( Locale.ROOT ), r );
+        List<FIFARecord> expected = new ArrayList<>( bySlug.values( ) );
+        expected.sort( null );
+
+        List<FIFARecord> merged = SeasonMerger.mergeAll( files );
+        if (merged.size( ) != expected.size( ))
+            System.out.println(what + ": merged " + merged.size( ) + " records, expected " + expected.size( ) + "!");
+        for (int i = 0; i < Math.min( merged.size( ), expected.size( ) ); i++)
+            if (!same( merged.get( i ), expected.get( i ) )) {
+                System.out.println(what + ": record " + i + " is " + merged.get( i ) + ", expected " + expected.get( i ) + "!");
+                break;
+            }
+
+        AvLTree<FIFARecord> tree = SeasonMerger.buildAvl( files );
+        if (tree.size( ) != expected.size( ) || !tree.validate( ).ok( ))
+            System.out.println(what + ": bad tree " + tree.validate( ));
+        Iterator<FIFARecord> it = tree.iterator( );
+        for (FIFARecord r : expected)
+            if (!it.hasNext( ) || !same( it.next( ), r )) {
+                System.out.println(what + ": tree order differs at " + r + "!");
+                break;
+            }
+    }
+
+    private static void row( StringBuilder sb, FIFARecord r, String slug, int rating ) {
+        sb.append( slug ).append( ',' ).append( r.getName( ) ).append( ',' )
+          .append( r.getFullName( ) ).append( ',' ).append( r.getBestPosition( ) ).append( ',' )
+          .append( rating ).append( ',' ).append( rating + 1 ).append( '\n' );
+    }
+
+    private static boolean same( FIFARecord x, FIFARecord y ) {
+        return x.getPlayerSlug( ).equals( y.getPlayerSlug( ) ) && x.getOverallRating( ) == y.getOverallRating( )
+                && x.getPotential( ) == y.getPotential( ) && x.getName( ).equals( y.getName( ) );
+    }
+}
@@ -0,0 +1,74 @@
+// checks the join-based set operations against the obvious answers
+// same style as TestAvl - no output means success
+
+public class TestSetOps {
+    public static void main( String [ ] args ) {
+        final int NUMS = 200000;
+
+        System.out.println("Checking... (no more output means success)");
+
+        // evens and multiples of three
+        AvLTree<Integer> evens = new AvLTree<>();
+        AvLTree<Integer> threes = new AvLTree<>();
+        for (int i = 0; i < NUMS; i += 2) evens.insert(i);
+        for (int i = 0; i < NUMS; i += 3) threes.insert(i);
+
+        // split at an odd key, then join back with it
+        AvLTree.Split<Integer> halves = evens.split(NUMS / 2 + 1);
+        if (halves.found || halves.less.findMax() != NUMS / 2 || halves.greater.findMin() != NUMS / 2 + 2)
+            System.out.println("Split error!");
+        halves.less.checkBalance();
+        halves.greater.checkBalance();
+        // sizes come from the split itself, not a recount
+        if (halves.less.size() != NUMS / 4 + 1 || halves.greater.size() != NUMS / 2 - NUMS / 4 - 1
+                || !halves.less.validate().ok() || !halves.greater.validate().ok())
+            System.out.println("Split size error!");
+        evens = AvLTree.join(halves.less, NUMS / 2 + 1, halves.greater);
+        evens.checkBalance();
+        if (evens.size() != NUMS / 2 + 1 || !evens.validate().ok())
+            System.out.println("Join size error!");
+        evens.remove(NUMS / 2 + 1);
+
+        // union: multiples of 2 or 3
+        AvLTree<Integer> union = copy(evens);
+        union.union(copy(threes));
+        union.checkBalance();
+        if (union.size() != NUMS / 2 + (NUMS + 2) / 3 - (NUMS + 5) / 6 || !union.validate().ok())
+            System.out.println("Union size error!");
+        for (int i = 0; i < NUMS; i++)
+            if (union.contains(i) != (i % 2 == 0 || i % 3 == 0))
+                System.out.println("Union error!");
+
+        // intersection: multiples of 6
+        AvLTree<Integer> inter = copy(evens);
+        inter.intersection(copy(threes));
+        inter.checkBalance();
+        if (inter.size() != (NUMS + 5) / 6)
+            System.out.println("Intersection size error!");
+        for (int i = 0; i < NUMS; i++)
+            if (inter.contains(i) != (i % 6 == 0))
+                System.out.println("Intersection error!");
+
+        // difference: evens that are not multiples of 3
+        AvLTree<Integer> diff = copy(evens);
+        diff.difference(copy(threes));
+        diff.checkBalance();
+        if (diff.size() != NUMS / 2 - (NUMS + 5) / 6 || !diff.validate().ok())
+            System.out.println("Difference size error!");
+        for (int i = 0; i < NUMS; i++)
+            if (diff.contains(i) != (i % 2 == 0 && i % 3 != 0))
+                System.out.println("Difference error!");
+
+        // the argument tree is consumed
+        AvLTree<Integer> other = copy(threes);
+        diff.union(other);
+        if (!other.isEmpty())
+            System.out.println("Consumed tree not empty!");
+    }
+
+    private static AvLTree<Integer> copy( AvLTree<Integer> t ) {
+        AvLTree<Integer> c = new AvLTree<>();
+        for (Integer x : t) c.insert(x);
+        return c;
+    }
+}
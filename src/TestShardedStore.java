@@ -0,0 +1,85 @@
+// checks ShardedAvlStore against a TreeSet, with several writer threads and
+// enough skew that shards split and merge along the way
+// same style as TestAvl - no output means success
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class TestShardedStore {
+    public static void main( String [ ] args ) throws InterruptedException {
+        final int NUMS = 200000;
+        final int THREADS = 4;
+        Random rnd = new Random( 7 );
+
+        System.out.println("Checking... (no more output means success)");
+
+        // most players rated 70-72 so that band's shard gets hot and splits
+        List<FIFARecord> players = new ArrayList<>();
+        for (int i = 0; i < NUMS; i++) {
+            int overall = rnd.nextInt( 10 ) < 8 ? 70 + rnd.nextInt( 3 ) : 40 + rnd.nextInt( 60 );
+            players.add( new FIFARecord( "player-" + i, "Name" + rnd.nextInt( 100 ), "ST",
+                    "Full Name " + i, overall, overall ) );
+        }
+
+        ShardedAvlStore store = new ShardedAvlStore( 40, 99, 6, 1 << 12, 256 );
+        Thread[] writers = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            int first = t;
+            writers[t] = new Thread( ( ) -> {
+                // insert the slice, then remove every odd-numbered player of it
+                for (int i = first; i < NUMS; i += THREADS)
+                    if (!store.insert( players.get( i ) ))
+                        System.out.println("Insert error!");
+                for (int i = first; i < NUMS; i += THREADS)
+                    if (i % 2 == 1 && !store.remove( players.get( i ) ))
+                        System.out.println("Remove error!");
+            } );
+            writers[t].start();
+        }
+        for (Thread w : writers) w.join();
+
+        TreeSet<FIFARecord> expected = new TreeSet<>();
+        for (int i = 0; i < NUMS; i += 2) expected.add( players.get( i ) );
+
+        if (store.size() != expected.size())
+            System.out.println("Size error!");
+        if (store.shardCount() <= 6)
+            System.out.println("Shards never split!");
+        int total = 0;
+        for (int s : store.shardSizes()) total += s;
+        if (total != expected.size())
+            System.out.println("Shard size error!");
+        for (int i = 0; i < NUMS; i++)
+            if (store.contains( players.get( i ) ) != (i % 2 == 0))
+                System.out.println("Find error!");
+        if (store.insert( players.get( 0 ) ) || store.remove( players.get( 1 ) ))
+            System.out.println("Duplicate error!");
+
+        // range queries that cross shard boundaries, in order
+        for (int lo = 40; lo < 100; lo += 7) {
+            int hi = Math.min( 99, lo + rnd.nextInt( 20 ) );
+            List<FIFARecord> got = store.rangeByRating( lo, hi );
+            List<FIFARecord> want = new ArrayList<>();
+            for (FIFARecord r : expected)
+                if (r.getOverallRating() >= lo && r.getOverallRating() <= hi) want.add( r );
+            if (!got.equals( want ))
+                System.out.println("Range error " + lo + ".." + hi + "!");
+        }
+
+        // emptying most of the store lets cold shards merge again
+        int before = store.shardCount();
+        for (int i = 0; i < NUMS; i += 2)
+            if (players.get( i ).getOverallRating() >= 70 && players.get( i ).getOverallRating() <= 72)
+                store.remove( players.get( i ) );
+        store.rebalance();
+        store.rebalance();
+        if (store.shardCount() >= before)
+            System.out.println("Shards never merged!");
+        List<FIFARecord> rest = store.rangeByRating( 40, 99 );
+        expected.removeIf( r -> r.getOverallRating() >= 70 && r.getOverallRating() <= 72 );
+        if (!rest.equals( new ArrayList<>( expected ) ))
+            System.out.println("Merge error!");
+    }
+}
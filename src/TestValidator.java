@@ -0,0 +1,52 @@
+// checks AvLTree.validate / BST.validate: clean trees pass after every operation,
+// a corrupted BST is caught at the right path, and a degenerate BST doesn't overflow the stack
+// same style as TestAvl - no output means success
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TestValidator {
+    public static void main( String [ ] args ) {
+        final int NUMS = 2000;
+        Random rnd = new Random( 3 );
+
+        System.out.println("Checking... (no more output means success)");
+
+        // validate after every single operation - far past TestAvl's 40-element limit
+        AvLTree<Integer> avl = new AvLTree<>( );
+        AvLTree<Integer> lazy = new AvLTree<>( );
+        lazy.setLazyDelete( true, 0.4, false );
+        BST<Integer> bst = new BST<>( );
+        for (int i = 0; i < 4 * NUMS; i++) {
+            int k = rnd.nextInt( NUMS );
+            if (rnd.nextInt( 3 ) > 0) {
+                avl.insert( k );
+                lazy.insert( k );
+                bst.add( k );
+            } else {
+                avl.remove( k );
+                lazy.remove( k );
+                bst.remove( k );
+            }
+            if (!avl.validate( ).ok( ) || !lazy.validate( ).ok( ) || !bst.validate( ).ok( ))
+                System.out.println("Validate error at op " + i + "!");
+        }
+
+        // break the order inside a balanced BST: 0..6 has 3 at the root, 2 at LR
+        List<Integer> seven = new ArrayList<>( );
+        for (int i = 0; i < 7; i++) seven.add( i );
+        BST<Integer> broken = BST.fromSorted( seven );
+        broken.search( 2 ).setValue( 10 );
+        ValidationReport r = broken.validate( );
+        if (r.ok( ) || r.violationCount( ) != 1 || !r.violations( ).get( 0 ).path.equals( "LR" ))
+            System.out.println("Corruption not reported: " + r);
+
+        // a degenerate BST (ascending inserts) is a million levels deep
+        BST<Integer> list = new BST<>( );
+        for (int i = 0; i < 1_000_000; i++) list.add( i );
+        r = list.validate( );
+        if (!r.ok( ) || r.height( ) != 999_999 || r.nodes( ) != 1_000_000)
+            System.out.println("Degenerate tree error: " + r);
+    }
+}
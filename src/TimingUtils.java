@@ -5,10 +5,14 @@
   @date: October 21, 2025
 ∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*/
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
 import java.util.List;
 
 public class TimingUtils {
@@ -23,6 +27,71 @@ public class TimingUtils {
     /** Converts nanoseconds to milliseconds as a double. */
     public static double nsToMs(long ns) { return ns / 1_000_000.0; }
 
+    /** Total time (ms) all garbage collectors have spent so far. */
+    public static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+    /** Total number of collections all garbage collectors have run so far. */
+    public static long gcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionCount());
+        }
+        return total;
+    }
+
+    /** The allocation counters, or null if the JVM doesn't keep them. */
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        return ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled() ? bean : null;
+    }
+
+    /**
+     * Runs phase once on the calling thread and measures its wall time, the bytes that
+     * thread allocated, and GC activity. Work the phase hands to other threads (e.g. the
+     * parallel sort in insertAll) is not counted - use measureAllThreads for those.
+     * ops is only the divisor for the per-op figures.
+     */
+    public static Measurement measure(long ops, Runnable phase) {
+        com.sun.management.ThreadMXBean bean = allocationBean();
+        long bytesBefore = bean != null ? bean.getCurrentThreadAllocatedBytes() : -1;
+        long gcCountBefore = gcCount();
+        long gcMsBefore = gcMillis();
+        long start = System.nanoTime();
+        phase.run();
+        long ns = System.nanoTime() - start;
+        long gcMs = gcMillis() - gcMsBefore;
+        long gcs = gcCount() - gcCountBefore;
+        long allocated = bean != null ? bean.getCurrentThreadAllocatedBytes() - bytesBefore : -1;
+        return new Measurement(ops, ns, allocated, gcs, gcMs);
+    }
+
+    /**
+     * Like measure, but counts the bytes allocated by every thread in the JVM during the
+     * phase (including pool workers that finished), for phases that run in parallel.
+     * Background threads that happen to allocate meanwhile (WAL flusher, compaction, JFR)
+     * are counted too, so the figure is an upper bound.
+     */
+    public static Measurement measureAllThreads(long ops, Runnable phase) {
+        com.sun.management.ThreadMXBean bean = allocationBean();
+        long bytesBefore = bean != null ? bean.getTotalThreadAllocatedBytes() : -1;
+        long gcCountBefore = gcCount();
+        long gcMsBefore = gcMillis();
+        long start = System.nanoTime();
+        phase.run();
+        long ns = System.nanoTime() - start;
+        long gcMs = gcMillis() - gcMsBefore;
+        long gcs = gcCount() - gcCountBefore;
+        long bytesAfter = bean != null ? bean.getTotalThreadAllocatedBytes() : -1;
+        long allocated = bytesBefore >= 0 && bytesAfter >= 0 ? bytesAfter - bytesBefore : -1;
+        return new Measurement(ops, ns, allocated, gcs, gcMs);
+    }
+
     /** Times inserting all items in order into a BST using its add method. */
     public static <T extends Comparable<? super T>>
     long timeInsertBST(BST<T> bst, List<T> data) {
@@ -39,6 +108,14 @@ public class TimingUtils {
         return System.nanoTime() - start;
     }
 
+    /** Times inserting all items into an AVL tree as one batch using insertAll. */
+    public static <T extends Comparable<? super T>>
+    long timeInsertAllAVL(AvLTree<T> avl, List<T> data) {
+        long start = System.nanoTime();
+        avl.insertAll(data);
+        return System.nanoTime() - start;
+    }
+
     /** Times searching each query in a BST; ignores the boolean result. */
     public static <T extends Comparable<? super T>>
     long timeSearchBST(BST<T> bst, List<T> queries) {
@@ -55,9 +132,26 @@ public class TimingUtils {
         return System.nanoTime() - start;
     }
 
-    /** Appends a CSV header (once) and a data row to the given file path. */
+    /** Times searching each query in a frozen (Eytzinger) index; ignores the boolean result. */
+    public static <T extends Comparable<? super T>>
+    long timeSearchFrozen(FrozenIndex<T> index, List<T> queries) {
+        long start = System.nanoTime();
+        for (T q : queries) index.contains(q); // ignore return; just timing
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Appends a CSV header (once) and a data row to the given file path.
+     * A file whose header has other columns is moved aside (path.old-1, -2 ...) first,
+     * so old and new rows never share a file.
+     */
     public static void appendCsv(String path, String header, String row) {
         File f = new File(path);
+        if (f.exists() && f.length() > 0 && !header.equals(firstLine(f))) {
+            File aside;
+            for (int i = 1; (aside = new File(path + ".old-" + i)).exists(); i++) { }
+            if (f.renameTo(aside)) System.err.println("Columns changed; moved old " + path + " to " + aside);
+        }
         boolean writeHeader = !(f.exists() && f.length() > 0);
         try (FileWriter fw = new FileWriter(f, true);
              PrintWriter pw = new PrintWriter(fw)) {
@@ -67,6 +161,14 @@ public class TimingUtils {
             System.err.println("Failed to write timings to " + path + ": " + e.getMessage());
         }
     }
+
+    private static String firstLine(File f) {
+        try (BufferedReader br = new BufferedReader(new FileReader(f))) {
+            return br.readLine();
+        } catch (IOException e) {
+            return null;
+        }
+    }
 }
 
 
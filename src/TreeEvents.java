@@ -0,0 +1,129 @@
+/*∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*
+  @file: TreeEvents.java
+  @description: Java Flight Recorder events for the trees and the parser - per-operation
+                events for AvLTree and BST, one event per CSV load with its phases broken
+                down, and one per parser command. All are off unless a recording enables them.
+  @author: Calvin Malaney
+  @date: October 19, 2026
+∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*/
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+// Turning them on, e.g. every AVL operation slower than 5 us, for a whole run:
+//   java -XX:StartFlightRecording:filename=run.jfr,settings=profile,+proj2.AvlOperation#enabled=true,+proj2.AvlOperation#threshold=5us ...
+// or from code with Recording.enable(TreeEvents.AvlOperation.class).withThreshold(...).
+//
+// The threshold is the sampling knob: an operation is recorded only if it took at least
+// that long, so a low threshold traces everything and a high one keeps just the outliers.
+// While an event is disabled, begin/end/shouldCommit are no-ops the JIT removes. Once it
+// is enabled, inserts, searches and BST removes measure their depth only if they pass the
+// threshold (BST removes count it on the way down), but AvLTree.remove has to walk to the
+// node before it goes, so it pays one extra descent whether or not it is recorded. CSV
+// phases are timed on every load while CsvLoad is enabled.
+final class TreeEvents {
+    private TreeEvents() {}   // no instances
+
+    @Name("proj2.AvlOperation")
+    @Label("AVL Operation")
+    @Category({"Proj2", "Trees"})
+    @Description("AvLTree insert, remove or rebalance (compaction rebuild)")
+    @Enabled(false)
+    @Threshold("20 us")
+    @StackTrace(false)
+    static final class AvlOperation extends Event {
+        @Label("Operation")
+        String operation;
+
+        @Label("Depth")
+        @Description("Edges from the root to the item's node (-1 if it isn't in the tree); for a rebalance, the new height")
+        int depth;
+
+        @Label("Rotations")
+        int rotations;
+
+        @Label("Size")
+        int size;
+    }
+
+    @Name("proj2.BstOperation")
+    @Label("BST Operation")
+    @Category({"Proj2", "Trees"})
+    @Description("BST add, remove or search")
+    @Enabled(false)
+    @Threshold("20 us")
+    @StackTrace(false)
+    static final class BstOperation extends Event {
+        @Label("Operation")
+        String operation;
+
+        @Label("Depth")
+        @Description("Edges from the root to the item's node, or to where the search ended")
+        int depth;
+
+        @Label("Found")
+        boolean found;
+
+        @Label("Size")
+        int size;
+    }
+
+    @Name("proj2.CsvLoad")
+    @Label("CSV Load")
+    @Category({"Proj2", "Parser"})
+    @Description("One Parser.forEachRecord pass, with the time of each phase")
+    @Enabled(false)
+    @Threshold("0 ms")
+    static final class CsvLoad extends Event {
+        @Label("File")
+        String file;
+
+        @Label("Records")
+        int records;
+
+        @Label("Read")
+        @Description("Reading complete CSV records (lines, joined across quoted newlines)")
+        @Timespan(Timespan.NANOSECONDS)
+        long readTime;
+
+        @Label("Tokenize")
+        @Description("Splitting records into fields")
+        @Timespan(Timespan.NANOSECONDS)
+        long tokenizeTime;
+
+        @Label("Construct")
+        @Description("Unquoting and parsing fields into FIFARecords")
+        @Timespan(Timespan.NANOSECONDS)
+        long constructTime;
+
+        @Label("Consume")
+        @Description("Time spent in the caller's sink (filling trees and indexes)")
+        @Timespan(Timespan.NANOSECONDS)
+        long consumeTime;
+    }
+
+    @Name("proj2.Command")
+    @Label("Parser Command")
+    @Category({"Proj2", "Parser"})
+    @Description("One command dispatched by Parser.execute (operate_BST and CommandServer)")
+    @Enabled(false)
+    @Threshold("100 us")
+    @StackTrace(false)
+    static final class Command extends Event {
+        @Label("Command")
+        String command;
+
+        @Label("Arguments")
+        int arguments;
+
+        @Label("Response Length")
+        int responseLength;
+    }
+}
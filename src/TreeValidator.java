@@ -0,0 +1,241 @@
+/*∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*
+  @file: TreeValidator.java
+  @description: Parallel invariant checker shared by AvLTree and BST. Verifies search order,
+                stored heights, balance factors and subtree sizes (when the tree keeps them)
+                and counts the nodes for the size check, reporting the paths of the first violations.
+  @author: Calvin Malaney
+  @date: October 19, 2026
+∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*/
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.function.UnaryOperator;
+
+// The trees hand over their node layout as accessor functions, so one checker serves both.
+// The top few levels are split into fork/join tasks (about 8 per core); each task below
+// that walks its subtree with an explicit stack, so a degenerate BST a million nodes deep
+// is checked without deep recursion. Every node is checked against the open interval
+// inherited from its ancestors, which catches a misplaced key anywhere below, not only
+// against its parent.
+final class TreeValidator<N, T extends Comparable<? super T>> {
+    private final UnaryOperator<N> left;
+    private final UnaryOperator<N> right;
+    private final Function<N, T> element;
+    private final ToIntFunction<N> storedHeight;   // null if the tree doesn't keep heights
+    private final ToIntFunction<N> storedCount;    // nodes in the subtree, tombstones included; null if not kept
+    private final Predicate<N> live;               // null if every node is live
+    private final int maxShown;
+    private final int forkDepth;
+
+    TreeValidator(UnaryOperator<N> left, UnaryOperator<N> right, Function<N, T> element,
+                  ToIntFunction<N> storedHeight, ToIntFunction<N> storedCount, Predicate<N> live, int maxShown) {
+        this.left = left;
+        this.right = right;
+        this.element = element;
+        this.storedHeight = storedHeight;
+        this.storedCount = storedCount;
+        this.live = live;
+        this.maxShown = maxShown;
+        this.forkDepth = 35 - Integer.numberOfLeadingZeros(ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    // walks the tree from root. expectedLive / expectedTombstones are the tree's own
+    // counters, or -1 to skip that comparison
+    ValidationReport validate(N root, long expectedLive, long expectedTombstones) {
+        Result r = root == null ? new Result(-1)
+                : invoke(new CheckTask(root, null, null, "", 0));
+        ValidationReport report = new ValidationReport(r.liveNodes, r.deadNodes, r.height, r.violationCount, r.violations, maxShown);
+        if (expectedLive >= 0 && expectedLive != r.liveNodes)
+            report.add("", "size is " + expectedLive + " but the tree holds " + r.liveNodes + " items");
+        if (expectedTombstones >= 0 && expectedTombstones != r.deadNodes)
+            report.add("", "tombstone count is " + expectedTombstones + " but the tree holds " + r.deadNodes);
+        return report;
+    }
+
+    private static <R> R invoke(RecursiveTask<R> task) {
+        return ForkJoinTask.inForkJoinPool() ? task.invoke() : ForkJoinPool.commonPool().invoke(task);
+    }
+
+    // what a subtree contributes
+    private final class Result {
+        int height;
+        long liveNodes, deadNodes;
+        long violationCount;
+        final List<ValidationReport.Violation> violations = new ArrayList<>();
+
+        Result(int height) {
+            this.height = height;
+        }
+
+        void add(String path, String problem) {
+            violationCount++;
+            if (violations.size() < maxShown) violations.add(new ValidationReport.Violation(path, problem));
+        }
+
+        void count(N n) {
+            if (live == null || live.test(n)) liveNodes++;
+            else deadNodes++;
+        }
+
+        // appends a child subtree's counts and violations (left child first, then right)
+        void absorb(Result child) {
+            liveNodes += child.liveNodes;
+            deadNodes += child.deadNodes;
+            violationCount += child.violationCount;
+            for (ValidationReport.Violation v : child.violations) {
+                if (violations.size() == maxShown) break;
+                violations.add(v);
+            }
+        }
+    }
+
+    // x must lie strictly inside (lo, hi); null bounds are open
+    private String orderProblem(T x, T lo, T hi) {
+        if (lo != null && x.compareTo(lo) <= 0) return "item " + x + " is not greater than ancestor " + lo;
+        if (hi != null && x.compareTo(hi) >= 0) return "item " + x + " is not less than ancestor " + hi;
+        return null;
+    }
+
+    // height/balance/size problem of a node whose children's computed heights are hl and hr
+    // and whose subtree holds nodes nodes in all, or null
+    private String shapeProblem(N n, int hl, int hr, long nodes) {
+        String bad = null;
+        if (storedHeight != null) {
+            int h = Math.max(hl, hr) + 1;
+            int stored = storedHeight.applyAsInt(n);
+            if (stored != h) bad = "stored height " + stored + ", actual " + h;
+            if (Math.abs(hl - hr) > 1) bad = (bad == null ? "" : bad + "; ") + "balance factor " + (hl - hr);
+        }
+        if (storedCount != null && storedCount.applyAsInt(n) != nodes)
+            bad = (bad == null ? "" : bad + "; ") + "stored subtree size " + storedCount.applyAsInt(n) + ", actual " + nodes;
+        return bad;
+    }
+
+    @SuppressWarnings("serial")   // never serialized - RecursiveTask is Serializable only by inheritance
+    private final class CheckTask extends RecursiveTask<Result> {
+        private final N node;
+        private final T lo, hi;
+        private final String path;
+        private final int depth;
+
+        CheckTask(N node, T lo, T hi, String path, int depth) {
+            this.node = node;
+            this.lo = lo;
+            this.hi = hi;
+            this.path = path;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Result compute() {
+            if (depth >= forkDepth) return walk(node, lo, hi, path);
+
+            T x = element.apply(node);
+            N l = left.apply(node), r = right.apply(node);
+            CheckTask lt = l == null ? null : new CheckTask(l, lo, x, path + "L", depth + 1);
+            if (lt != null) lt.fork();
+            Result rr = r == null ? new Result(-1) : new CheckTask(r, x, hi, path + "R", depth + 1).compute();
+            Result lr = lt == null ? new Result(-1) : lt.join();
+
+            Result res = new Result(Math.max(lr.height, rr.height) + 1);
+            String bad = orderProblem(x, lo, hi);
+            if (bad != null) res.add(path, bad);
+            long nodes = 1 + lr.liveNodes + lr.deadNodes + rr.liveNodes + rr.deadNodes;
+            bad = shapeProblem(node, lr.height, rr.height, nodes);
+            if (bad != null) res.add(path, bad);
+            res.count(node);
+            res.absorb(lr);
+            res.absorb(rr);
+            return res;
+        }
+    }
+
+    // the same checks without recursion: an explicit stack of frames, grown as needed
+    @SuppressWarnings("unchecked")
+    private Result walk(N root, T rootLo, T rootHi, String prefix) {
+        Result res = new Result(-1);
+        int cap = 64;
+        Object[] nodes = new Object[cap];
+        Object[] los = new Object[cap];
+        Object[] his = new Object[cap];
+        int[] hl = new int[cap];
+        int[] hr = new int[cap];
+        long[] below = new long[cap];   // nodes in the children of frame i finished so far
+        byte[] state = new byte[cap];   // 0 = enter, 1 = left done, 2 = right done
+        char[] dirs = new char[cap];    // how frame i was reached from frame i-1
+
+        nodes[0] = root;
+        los[0] = rootLo;
+        his[0] = rootHi;
+        hl[0] = hr[0] = -1;
+        below[0] = 0;
+        int top = 1;
+
+        while (top > 0) {
+            int f = top - 1;
+            N n = (N) nodes[f];
+            N child = null;
+            char dir = 0;
+            if (state[f] == 0) {
+                state[f] = 1;
+                String bad = orderProblem(element.apply(n), (T) los[f], (T) his[f]);
+                if (bad != null) res.add(path(prefix, dirs, f), bad);
+                child = left.apply(n);
+                dir = 'L';
+            }
+            if (child == null && state[f] == 1) {
+                state[f] = 2;
+                child = right.apply(n);
+                dir = 'R';
+            }
+            if (child != null) {
+                if (top == cap) {
+                    cap <<= 1;
+                    nodes = Arrays.copyOf(nodes, cap);
+                    los = Arrays.copyOf(los, cap);
+                    his = Arrays.copyOf(his, cap);
+                    hl = Arrays.copyOf(hl, cap);
+                    hr = Arrays.copyOf(hr, cap);
+                    below = Arrays.copyOf(below, cap);
+                    state = Arrays.copyOf(state, cap);
+                    dirs = Arrays.copyOf(dirs, cap);
+                }
+                T x = element.apply(n);
+                nodes[top] = child;
+                los[top] = dir == 'L' ? los[f] : x;
+                his[top] = dir == 'L' ? x : his[f];
+                hl[top] = hr[top] = -1;
+                below[top] = 0;
+                state[top] = 0;
+                dirs[top] = dir;
+                top++;
+                continue;
+            }
+
+            // both children done
+            int h = Math.max(hl[f], hr[f]) + 1;
+            String bad = shapeProblem(n, hl[f], hr[f], below[f] + 1);
+            if (bad != null) res.add(path(prefix, dirs, f), bad);
+            res.count(n);
+            nodes[f] = los[f] = his[f] = null;
+            top--;
+            if (top == 0) res.height = h;
+            else if (dirs[f] == 'L') hl[f - 1] = h;
+            else hr[f - 1] = h;
+            if (top > 0) below[f - 1] += below[f] + 1;
+        }
+        return res;
+    }
+
+    // path of frame f - only built when there is something to report
+    private static String path(String prefix, char[] dirs, int f) {
+        return prefix + new String(dirs, 1, f);
+    }
+}
@@ -0,0 +1,94 @@
+/*∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*
+  @file: ValidationReport.java
+  @description: Result of AvLTree.validate / BST.validate - the tree's shape (nodes, height)
+                and the first invariant violations found, each with the path to the node.
+  @author: Calvin Malaney
+  @date: October 19, 2026
+∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗∗*/
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public final class ValidationReport {
+
+    // one broken invariant. path is the way down from the root ("LRR"; "" is the root itself)
+    public static final class Violation {
+        public final String path;
+        public final String problem;
+
+        Violation(String path, String problem) {
+            this.path = path;
+            this.problem = problem;
+        }
+
+        @Override
+        public String toString() {
+            return (path.isEmpty() ? "root" : path) + ": " + problem;
+        }
+    }
+
+    private final long nodes;        // live nodes
+    private final long tombstones;   // nodes marked deleted (AvLTree lazy delete)
+    private final int height;
+    private long violationCount;
+    private final int maxShown;
+    private final List<Violation> violations;
+
+    ValidationReport(long nodes, long tombstones, int height, long violationCount,
+                     List<Violation> violations, int maxShown) {
+        this.nodes = nodes;
+        this.tombstones = tombstones;
+        this.height = height;
+        this.violationCount = violationCount;
+        this.maxShown = maxShown;
+        this.violations = new ArrayList<>(violations);
+    }
+
+    // tree-level problems (size counters, cached max) found after the walk
+    void add(String path, String problem) {
+        violationCount++;
+        if (violations.size() < maxShown) violations.add(new Violation(path, problem));
+    }
+
+    public boolean ok() {
+        return violationCount == 0;
+    }
+
+    public long nodes() {
+        return nodes;
+    }
+
+    public long tombstones() {
+        return tombstones;
+    }
+
+    // -1 for an empty tree
+    public int height() {
+        return height;
+    }
+
+    // all violations, including the ones not kept in violations()
+    public long violationCount() {
+        return violationCount;
+    }
+
+    // the first few violations, left subtrees before right
+    public List<Violation> violations() {
+        return Collections.unmodifiableList(violations);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(ok() ? "OK" : "BROKEN").append(": ").append(nodes).append(" nodes");
+        if (tombstones > 0) sb.append(", ").append(tombstones).append(" tombstones");
+        sb.append(", height ").append(height);
+        if (!ok()) {
+            sb.append(", ").append(violationCount).append(" violations");
+            for (Violation v : violations) sb.append("\n  ").append(v);
+            if (violationCount > violations.size()) sb.append("\n  ...");
+        }
+        return sb.toString();
+    }
+}